@@ -0,0 +1,57 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.os.Debug;
+
+/**
+ * Counts the objects a thread allocates, in debug builds only. Release builds count nothing and
+ * always report 0.
+ *
+ * The counting relies on the deprecated allocation counters of Debug. They are the only
+ * per-thread counters available on the devices this app supports, and they are used for a
+ * debug log line only. The deprecation warnings are suppressed here and nowhere else. Steady
+ * state allocations are measured properly by the JMH benchmarks with -prof gc.
+ *
+ * @version %I%, %G%
+ * @see     Debug#startAllocCounting()
+ * @see     Debug#getThreadAllocCount()
+ */
+final class AllocationCounter {
+
+    private AllocationCounter() {
+    }
+
+    /**
+     * Starts counting allocations, in debug builds.
+     *
+     * @see Debug#startAllocCounting()
+     */
+    @SuppressWarnings("deprecation")
+    static void start() {
+        if (BuildConfig.DEBUG) {
+            Debug.startAllocCounting();
+        }
+    }
+
+    /**
+     * Stops counting allocations, in debug builds.
+     *
+     * @see Debug#stopAllocCounting()
+     */
+    @SuppressWarnings("deprecation")
+    static void stop() {
+        if (BuildConfig.DEBUG) {
+            Debug.stopAllocCounting();
+        }
+    }
+
+    /**
+     * Gets the number of objects the calling thread allocated since counting started.
+     *
+     * @return  the allocation count, 0 in release builds
+     * @see     Debug#getThreadAllocCount()
+     */
+    @SuppressWarnings("deprecation")
+    static int getThreadCount() {
+        return BuildConfig.DEBUG ? Debug.getThreadAllocCount() : 0;
+    }
+}
@@ -0,0 +1,255 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.media.SoundPool;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the games sounds and sprites off the UI thread. Sprites are decoded and scaled into the
+ * SpriteCache and sound files are opened and handed to the SoundPool in parallel on a small
+ * background executor. A sound only counts as loaded once the SoundPool reports it decoded, so
+ * the ready future is done when every sound can be played and every sprite is in the cache.
+ *
+ * Assets are declared with addSound() and addSprite() on the UI thread before start(). Sound
+ * ids and sprites must only be fetched once the ready future is done.
+ *
+ * @version %I%, %G%
+ * @see     SoundPool.OnLoadCompleteListener
+ * @see     SpriteCache
+ * @see     FutureTask
+ */
+public class AssetLoader implements SoundPool.OnLoadCompleteListener {
+
+    private static final int THREADS = 2;
+
+    private static final int MAX_ASSETS = 16;
+
+    private final AssetManager assetManager;
+    private final SoundPool soundPool;
+    private final SpriteCache sprites;
+
+    private final String[] soundNames = new String[MAX_ASSETS];
+    private final int[] soundIds = new int[MAX_ASSETS];
+    private int numSounds;
+
+    private final int[] spriteIds = new int[MAX_ASSETS];
+    private final int[] spriteWidths = new int[MAX_ASSETS];
+    private final int[] spriteHeights = new int[MAX_ASSETS];
+    private int numSprites;
+
+    // Load steps not done yet, the last one completes the ready future. A sound takes two
+    // steps, its load() call returning its id and the SoundPool reporting it decoded.
+    private final AtomicInteger pending = new AtomicInteger();
+    private final FutureTask<Void> ready = new FutureTask<>(new Runnable() {
+        @Override
+        public void run() {
+        }
+    }, null);
+
+    private long startTime;
+    private volatile long loadMillis;
+
+    /**
+     * Creates a loader without any assets.
+     *
+     * @param assetManager  the assets to open the sound files from
+     * @param soundPool     the pool to load the sounds into
+     * @param sprites       the cache to decode the sprites into
+     * @see                 SoundPool#setOnLoadCompleteListener(SoundPool.OnLoadCompleteListener)
+     */
+    public AssetLoader(AssetManager assetManager, SoundPool soundPool, SpriteCache sprites) {
+        this.assetManager = assetManager;
+        this.soundPool = soundPool;
+        this.sprites = sprites;
+        soundPool.setOnLoadCompleteListener(this);
+    }
+
+    /**
+     * Declares a sound file to load.
+     *
+     * @param name  the sound files name in the assets
+     * @return      the sounds index to get its id with
+     * @see         #getSoundId(int)
+     */
+    public int addSound(String name) {
+        soundNames[numSounds] = name;
+        soundIds[numSounds] = -1;
+        return numSounds++;
+    }
+
+    /**
+     * Declares a sprite to decode and scale.
+     *
+     * @param resourceId    the sprites drawable resource id
+     * @param width         the sprites target size in x-direction
+     * @param height        the sprites target size in y-direction
+     * @see                 #getSprite(int)
+     */
+    public void addSprite(int resourceId, int width, int height) {
+        spriteIds[numSprites] = resourceId;
+        spriteWidths[numSprites] = width;
+        spriteHeights[numSprites] = height;
+        numSprites++;
+    }
+
+    /**
+     * Starts loading all declared assets in the background. Must be called once, after all
+     * assets were declared.
+     *
+     * @return  the future done once all assets are loaded
+     * @see     ExecutorService#submit(Runnable)
+     * @see     ExecutorService#shutdown()
+     */
+    public Future<Void> start() {
+        startTime = SystemClock.uptimeMillis();
+        pending.set(2 * numSounds + numSprites);
+        if (numSounds + numSprites == 0) {
+            finish();
+            return ready;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < numSounds; i++) {
+            final int sound = i;
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    loadSound(sound);
+                }
+            });
+        }
+        for (int i = 0; i < numSprites; i++) {
+            final int sprite = i;
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    sprites.get(spriteIds[sprite], spriteWidths[sprite], spriteHeights[sprite]);
+                    loaded();
+                }
+            });
+        }
+
+        // The threads end once the tasks are done
+        executor.shutdown();
+        return ready;
+    }
+
+    /**
+     * Opens a sound file and hands it to the SoundPool, which decodes it on its own thread. A
+     * file failing to open or load counts as loaded, its sound stays silent.
+     *
+     * @param sound the sounds index
+     * @see         AssetManager#openFd(String)
+     * @see         SoundPool#load(AssetFileDescriptor, int)
+     */
+    private void loadSound(int sound) {
+        try {
+            AssetFileDescriptor descriptor = assetManager.openFd(soundNames[sound]);
+            soundIds[sound] = soundPool.load(descriptor, 0);
+        } catch (IOException e) {
+            Log.e("AssetLoader", "failed to load sound " + soundNames[sound]);
+        }
+
+        // No load callback follows for a sound that did not even start loading
+        if (soundIds[sound] <= 0) {
+            loaded();
+        }
+        loaded();
+    }
+
+    /**
+     * Counts a sound decoded by the SoundPool as loaded.
+     *
+     * @param soundPool the pool the sound was loaded into
+     * @param sampleId  the sounds id
+     * @param status    the load status, 0 if the sound was decoded
+     */
+    @Override
+    public void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
+        if (status != 0) {
+            Log.e("AssetLoader", "failed to decode sound " + sampleId + ", status " + status);
+        }
+        loaded();
+    }
+
+    /**
+     * Counts an asset as loaded and completes the ready future after the last one.
+     */
+    private void loaded() {
+        if (pending.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        loadMillis = SystemClock.uptimeMillis() - startTime;
+        Log.i("AssetLoader", numSounds + " sounds and " + numSprites + " sprites loaded in "
+                + loadMillis + " ms");
+        ready.run();
+    }
+
+    /**
+     * Gets whether all assets are loaded.
+     *
+     * @return  <code>true</code> if the ready future is done
+     *          <code>false</code> else
+     */
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    /**
+     * Gets the time from start() until all assets were loaded.
+     *
+     * @return  the load time in milliseconds, 0 while loading
+     */
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * Gets the number of sounds declared.
+     *
+     * @return  the sound count, the sound indices run from 0 to this count - 1
+     */
+    public int getSoundCount() {
+        return numSounds;
+    }
+
+    /**
+     * Gets the SoundPool id of a loaded sound.
+     *
+     * @param sound the sounds index, as returned by addSound()
+     * @return      the sounds id, -1 if the sound file could not be opened
+     */
+    public int getSoundId(int sound) {
+        return soundIds[sound];
+    }
+
+    /**
+     * Gets a loaded sprite at its declared size.
+     *
+     * @param resourceId    the sprites drawable resource id
+     * @return              the scaled bitmap
+     * @throws IllegalArgumentException if the sprite was not declared
+     * @see                 SpriteCache#get(int, int, int)
+     */
+    public Bitmap getSprite(int resourceId) {
+        for (int i = 0; i < numSprites; i++) {
+            if (spriteIds[i] == resourceId) {
+                return sprites.get(resourceId, spriteWidths[i], spriteHeights[i]);
+            }
+        }
+        throw new IllegalArgumentException("sprite " + resourceId + " not declared");
+    }
+}
@@ -0,0 +1,99 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+
+/**
+ * An offscreen bitmap holding a horizontal band of the screen that rarely changes. The band is
+ * rendered once into the bitmap and then drawn each frame with a single drawBitmap() call until
+ * it is invalidated.
+ *
+ * @version %I%, %G%
+ * @see     Bitmap
+ */
+public class CachedLayer {
+
+    private final Bitmap bitmap;
+    private final Canvas canvas;
+    private final int top;
+
+    private boolean valid;
+
+    /**
+     * Creates an invalid layer covering the given band of the screen.
+     *
+     * @param width     the bands size in x-direction
+     * @param top       the bands top edge on the screen
+     * @param bottom    the bands bottom edge on the screen
+     * @see             Bitmap#createBitmap(int, int, Bitmap.Config)
+     */
+    public CachedLayer(int width, int top, int bottom) {
+        this.top = top;
+        bitmap = Bitmap.createBitmap(width, Math.max(1, bottom - top), Bitmap.Config.ARGB_8888);
+        canvas = new Canvas(bitmap);
+        // Callers draw in screen coordinates
+        canvas.translate(0, -top);
+    }
+
+    /**
+     * Forces the layer to be rendered again before it is drawn next.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Tests if the layers content is up to date.
+     *
+     * @return  <code>true</code> if the layer can be drawn as is
+     *          <code>false</code> else
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Clears the layer and gets the canvas to render its new content to, in screen coordinates.
+     * The layer counts as valid from now on.
+     *
+     * @return  the layers canvas
+     * @see     Canvas#drawColor(int, PorterDuff.Mode)
+     */
+    public Canvas beginRender() {
+        canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        valid = true;
+        return canvas;
+    }
+
+    /**
+     * Gets the bitmap holding the layers content, e.g. to upload it as a texture.
+     *
+     * @return  the layers bitmap, as tall as the band
+     */
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Gets the top edge of the band on the screen.
+     *
+     * @return  the bands top edge
+     */
+    public int getTop() {
+        return top;
+    }
+
+    /**
+     * Draws the layers content at its place on the screen.
+     *
+     * @param target    the screens canvas
+     * @param paint     the paint to draw with
+     * @see             Canvas#drawBitmap(Bitmap, float, float, Paint)
+     */
+    public void draw(Canvas target, Paint paint) {
+        target.drawBitmap(bitmap, 0, top, paint);
+    }
+}
@@ -0,0 +1,507 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+import android.view.Surface;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.view.View;
+
+import com.gamecodeschool.spaceinvaders.core.Box;
+import com.gamecodeschool.spaceinvaders.core.FrameTimer;
+import com.gamecodeschool.spaceinvaders.core.GameSimulation;
+import com.gamecodeschool.spaceinvaders.core.GameSnapshot;
+import com.gamecodeschool.spaceinvaders.core.PhaseProfiler;
+import com.gamecodeschool.spaceinvaders.core.ShelterField;
+import com.gamecodeschool.spaceinvaders.core.TripleBuffer;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Draws the game with software Canvas calls to a SurfaceView on a render thread of its own. The
+ * buttons and the shelters come from cached layers, and optionally only the dirty region of the
+ * surface is repainted.
+ *
+ * @version %I%, %G%
+ * @see     Renderer
+ * @see     SurfaceView
+ * @see     CachedLayer
+ * @see     DirtyRegion
+ */
+public class CanvasRenderer implements Renderer, Runnable, SurfaceHolder.Callback {
+
+    /**
+     * Fraction of the screen above which a dirty region is repainted as a whole. Locking a large
+     * part of the surface gains nothing over a full repaint.
+     */
+    private static final float DIRTY_FALLBACK_FRACTION = 0.5f;
+
+    private final SurfaceView view;
+    private final SurfaceHolder ourHolder;
+
+    private final TripleBuffer<GameSnapshot> snapshots;
+    private final HUD hud;
+
+    // Only the geometry is used, the bricks come from the snapshots
+    private final ShelterField shelters;
+
+    private final PhaseProfiler profiler;
+    private final ProfilerOverlay overlay;
+
+    // Start of the frame interval being timed, 0 if none
+    private long frameIntervalStart;
+
+    private Thread renderThread;
+    private volatile boolean rendering;
+
+    private final FrameTimer timer = new FrameTimer();
+
+    // Time from an input to the first frame showing it, and the input last measured
+    private final FrameTimer latencyTimer = new FrameTimer();
+    private long measuredInputTime;
+
+    // Objects allocated by draw() in the last frame, only counted in debug builds
+    private volatile int lastFrameDrawAllocations;
+
+    private final int screenX;
+    private final int screenY;
+
+    private Canvas canvas;
+    private Paint paint;
+    private Paint scorePaint;
+    private Paint layerPaint;
+
+    private final AssetLoader assets;
+
+    // Fetched by the render thread once the assets are loaded
+    private Bitmap playerBitmap;
+    private Bitmap invaderBitmap1;
+    private Bitmap invaderBitmap2;
+    private Box brickRect = new Box();
+
+    private HudText hudText = new HudText();
+
+    // Offscreen layers of the buttons and the shelters, rendered again only when they change
+    private CachedLayer hudLayer;
+    private CachedLayer shelterLayer;
+    private boolean hudLayerPaused;
+    private int shelterLayerVersion;
+    private volatile boolean layersStale;
+
+    private DirtyRegion dirtyRegion;
+    private Rect dirtyRect = new Rect();
+    private boolean dirtyRendering;
+    private int scoreBottom;
+
+    /**
+     * Creates the SurfaceView and the cached layers. The sprites are fetched on the render
+     * thread once they are loaded.
+     *
+     * @param context       the context to create the view in
+     * @param simulation    the simulation to size the sprites for
+     * @param snapshots     the snapshots of the simulation to draw
+     * @param hud           the buttons to draw
+     * @param assets        the loader to fetch the scaled sprites from
+     * @see                 SurfaceView
+     * @see                 CachedLayer
+     * @see                 DirtyRegion
+     * @see                 ProfilerOverlay
+     */
+    public CanvasRenderer(Context context, GameSimulation simulation,
+                          TripleBuffer<GameSnapshot> snapshots, HUD hud, AssetLoader assets) {
+        this.snapshots = snapshots;
+        this.hud = hud;
+        this.assets = assets;
+
+        screenX = simulation.getScreenX();
+        screenY = simulation.getScreenY();
+        shelters = new ShelterField(screenX, screenY);
+        profiler = simulation.getProfiler();
+
+        view = new SurfaceView(context);
+        ourHolder = view.getHolder();
+        ourHolder.addCallback(this);
+
+        paint = new Paint();
+
+        scorePaint = new Paint();
+        scorePaint.setColor(Color.argb(255,  249, 129, 0));
+        scorePaint.setTextSize(90);
+        scoreBottom = 90 + (int) Math.ceil(scorePaint.descent());
+        overlay = new ProfilerOverlay(screenX, screenY, scoreBottom + 10);
+
+        layerPaint = new Paint();
+
+        hudLayer = new CachedLayer(screenX, 0, screenY);
+        shelterLayer = new CachedLayer(screenX, shelters.getTop(), shelters.getBottom());
+
+        dirtyRegion = new DirtyRegion(screenX, screenY, DIRTY_FALLBACK_FRACTION);
+        dirtyRendering = context.getResources().getBoolean(R.bool.dirty_rendering);
+    }
+
+    /**
+     * Gets the SurfaceView drawn to.
+     *
+     * @return  the view showing the game
+     */
+    @Override
+    public View getView() {
+        return view;
+    }
+
+    /**
+     * Draws the latest snapshot over and over until paused. Sleeps for a tick whenever nothing
+     * was drawn, so an invalid surface or an unchanged screen does not keep the thread busy.
+     * Nothing is drawn until the assets are loaded.
+     *
+     * @see AssetLoader#isReady()
+     * @see AssetLoader#getSprite(int)
+     * @see TripleBuffer#acquire()
+     * @see GameSnapshot#getAlpha(long)
+     * @see #draw(GameSnapshot, float)
+     * @see AllocationCounter#getThreadCount()
+     * @see LockSupport#parkNanos(long)
+     */
+    @Override
+    public void run() {
+        while (rendering) {
+            if (playerBitmap == null) {
+                if (!assets.isReady()) {
+                    LockSupport.parkNanos(GameSimulation.NANOS_PER_TICK);
+                    continue;
+                }
+                playerBitmap = assets.getSprite(R.drawable.playership);
+                invaderBitmap1 = assets.getSprite(R.drawable.invader1);
+                invaderBitmap2 = assets.getSprite(R.drawable.invader2);
+            }
+
+            long startFrameTime = System.nanoTime();
+            GameSnapshot snapshot = snapshots.acquire();
+            float alpha = snapshot.getAlpha(startFrameTime);
+
+            int allocations = AllocationCounter.getThreadCount();
+            boolean drawn = draw(snapshot, alpha);
+            lastFrameDrawAllocations = AllocationCounter.getThreadCount() - allocations;
+            timer.record(System.nanoTime() - startFrameTime);
+
+            if (drawn) {
+                frameIntervalStart = frameIntervalStart == 0 ? profiler.start()
+                        : profiler.lap(PhaseProfiler.FRAME, frameIntervalStart);
+            }
+
+            if (drawn && snapshot.getInputTime() != measuredInputTime) {
+                measuredInputTime = snapshot.getInputTime();
+                latencyTimer.record(System.nanoTime() - measuredInputTime);
+            }
+
+            if (!drawn) {
+                LockSupport.parkNanos(GameSimulation.NANOS_PER_TICK);
+            }
+        }
+    }
+
+    /**
+     * Draws all game objects to the drawing surface. Allocates nothing in steady state, the score
+     * line is only rebuilt when its values change. The buttons and the shelters come from cached
+     * layers that are only rendered again when they changed. With dirty rendering enabled only
+     * the region covering changes since the last frame is locked and repainted, unless it grows
+     * past DIRTY_FALLBACK_FRACTION of the screen. Locking, drawing and posting are timed as
+     * separate phases, and the profiler overlay is drawn on top while the profiler is enabled.
+     *
+     * @param snapshot  the simulation state to draw
+     * @param alpha     the fraction of a tick passed since the snapshot, between 0 and 1
+     * @return          <code>true</code> if a frame was posted
+     *                  <code>false</code> if the surface is invalid or nothing changed
+     * @see HudText#set(int, int, int)
+     * @see CachedLayer#draw(Canvas, Paint)
+     * @see #renderHudLayer(boolean)
+     * @see #renderShelterLayer(GameSnapshot)
+     * @see ProfilerOverlay#update(PhaseProfiler, long)
+     * @see PhaseProfiler#lap(int, long)
+     * @see Surface#isValid()
+     * @see DirtyRegion#finish(Rect)
+     * @see SurfaceHolder#lockCanvas()
+     * @see SurfaceHolder#lockCanvas(Rect)
+     * @see SurfaceHolder#unlockCanvasAndPost(Canvas)
+     * @see Paint#setColor(int)
+     * @see Canvas#drawColor(int)
+     * @see Canvas#drawBitmap(Bitmap, float, float, Paint)
+     * @see Canvas#drawText(char[], int, int, float, float, Paint)
+     */
+    private boolean draw(GameSnapshot snapshot, float alpha) {
+        if (ourHolder.getSurface().isValid()) {
+            if (layersStale) {
+                layersStale = false;
+                hudLayer.invalidate();
+                shelterLayer.invalidate();
+                dirtyRegion.invalidateAll();
+            }
+            if (!hudLayer.isValid() || hudLayerPaused != snapshot.isPaused()) {
+                renderHudLayer(snapshot.isPaused());
+                dirtyRegion.invalidate(hud.pause.left, hud.pause.top,
+                        hud.pause.right, hud.pause.bottom);
+            }
+            if (!shelterLayer.isValid()
+                    || shelterLayerVersion != snapshot.getShelterVersion()) {
+                renderShelterLayer(snapshot);
+                dirtyRegion.invalidate(0, shelters.getTop(), screenX, shelters.getBottom());
+            }
+            if (hudText.set(snapshot.getScore(), snapshot.getLives(), snapshot.getHighScore())) {
+                dirtyRegion.invalidate(0, 0, screenX, scoreBottom);
+            }
+            if (overlay.update(profiler, System.nanoTime())) {
+                Rect bounds = overlay.getBounds();
+                dirtyRegion.invalidate(bounds.left, bounds.top, bounds.right, bounds.bottom);
+            }
+
+            long time = profiler.start();
+            if (dirtyRendering) {
+                includeMovingObjects(snapshot, alpha);
+                if (!dirtyRegion.finish(dirtyRect)) {
+                    canvas = ourHolder.lockCanvas();
+                } else if (!dirtyRect.isEmpty()) {
+                    canvas = ourHolder.lockCanvas(dirtyRect);
+                } else {
+                    // Nothing changed since the last frame
+                    return false;
+                }
+            } else {
+                canvas = ourHolder.lockCanvas();
+            }
+            if (canvas == null) {
+                return false;
+            }
+            time = profiler.lap(PhaseProfiler.LOCK, time);
+
+            canvas.drawColor(Color.argb(255, 0, 0, 0));
+
+            paint.setColor(Color.argb(255,  255, 255, 255));
+
+
+            // Draw the player ship
+            canvas.drawBitmap(
+                    playerBitmap,
+                    snapshot.getPlayerX(alpha),
+                    snapshot.getPlayerTop(),
+                    paint);
+
+            // Draw the invaders
+            GameSnapshot.Entities invaders = snapshot.getInvaders();
+            Bitmap invaderBitmap = snapshot.getInvaderFrame() ? invaderBitmap1 : invaderBitmap2;
+            for(int i = 0; i < invaders.getCount(); i++) {
+                canvas.drawBitmap(
+                        invaderBitmap,
+                        invaders.getInterpolatedX(i, alpha),
+                        invaders.getInterpolatedY(i, alpha),
+                        paint);
+            }
+
+            // Draw the remaining bricks of each shelter
+            shelterLayer.draw(canvas, layerPaint);
+
+            // Draw the players and the invaders bullets
+            GameSnapshot.Entities bullets = snapshot.getBullets();
+            for(int i = 0; i < bullets.getCount(); i++) {
+                float left = bullets.getInterpolatedX(i, alpha);
+                float top = bullets.getInterpolatedY(i, alpha);
+                canvas.drawRect(left, top,
+                        left + bullets.getWidth(i), top + bullets.getHeight(i), paint);
+            }
+
+            // Draw the score, remaining lives and high score
+            canvas.drawText(hudText.getChars(), 0, hudText.getLength(), 10, 90, scorePaint);
+
+            // Draw buttons
+            hudLayer.draw(canvas, layerPaint);
+
+            overlay.draw(canvas);
+            time = profiler.lap(PhaseProfiler.DRAW, time);
+
+            ourHolder.unlockCanvasAndPost(canvas);
+            profiler.lap(PhaseProfiler.POST, time);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Starts the render thread. Repaints the whole surface first after resuming, as it may have
+     * been recreated meanwhile.
+     *
+     * @see DirtyRegion#invalidateAll()
+     * @see Thread#start()
+     * @see AllocationCounter#start()
+     */
+    @Override
+    public void onResume() {
+        dirtyRegion.invalidateAll();
+
+        AllocationCounter.start();
+        timer.reset();
+        latencyTimer.reset();
+        frameIntervalStart = 0;
+        rendering = true;
+        renderThread = new Thread(this, "CanvasRenderer");
+        renderThread.start();
+    }
+
+    /**
+     * Stops the render thread and waits for it to finish its frame.
+     *
+     * @see Thread#join()
+     * @see AllocationCounter#stop()
+     */
+    @Override
+    public void onPause() {
+        rendering = false;
+        try {
+            renderThread.join();
+        } catch (InterruptedException e) {
+            Log.e("Error:", "joining render thread");
+        }
+
+        AllocationCounter.stop();
+    }
+
+    /**
+     * Gets the time spent per frame on the render thread, including waiting for the surface.
+     *
+     * @return  the render threads timer
+     */
+    @Override
+    public FrameTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Gets the number of objects allocated while drawing the last frame.
+     *
+     * @return  the allocation count of the last frame, 0 in release builds
+     */
+    @Override
+    public int getDrawAllocations() {
+        return lastFrameDrawAllocations;
+    }
+
+    /**
+     * Gets the time from a player input to the first frame showing its effect being posted.
+     *
+     * @return  the input latency timer
+     * @see     GameSnapshot#getInputTime()
+     */
+    @Override
+    public FrameTimer getLatencyTimer() {
+        return latencyTimer;
+    }
+
+    /**
+     * Nothing to do, the game thread draws once the surface is valid.
+     *
+     * @param holder    the holder of the created surface
+     */
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+    }
+
+    /**
+     * Marks the cached layers and the whole surface for rendering again after the surface
+     * changed, e.g. its size.
+     *
+     * @param holder    the holder of the changed surface
+     * @param format    the surfaces new pixel format
+     * @param width     the surfaces new width
+     * @param height    the surfaces new height
+     * @see             SurfaceHolder.Callback#surfaceChanged(SurfaceHolder, int, int, int)
+     */
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        layersStale = true;
+    }
+
+    /**
+     * Nothing to do, the game thread stops drawing while the surface is invalid.
+     *
+     * @param holder    the holder of the destroyed surface
+     */
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+    }
+
+    /**
+     * Adds the bounds of every moving object at its interpolated position to the dirty region.
+     *
+     * @param snapshot  the simulation state to draw
+     * @param alpha     the fraction of a tick passed since the snapshot, between 0 and 1
+     * @see             DirtyRegion#include(float, float, float, float)
+     */
+    private void includeMovingObjects(GameSnapshot snapshot, float alpha) {
+        float playerX = snapshot.getPlayerX(alpha);
+        dirtyRegion.include(playerX, snapshot.getPlayerTop(),
+                playerX + snapshot.getPlayerLength(),
+                snapshot.getPlayerTop() + snapshot.getPlayerHeight());
+
+        includeEntities(snapshot.getInvaders(), alpha);
+        includeEntities(snapshot.getBullets(), alpha);
+    }
+
+    /**
+     * Adds the bounds of all objects of a kind at their interpolated position to the dirty
+     * region.
+     *
+     * @param entities  the objects
+     * @param alpha     the fraction of a tick passed since the snapshot
+     */
+    private void includeEntities(GameSnapshot.Entities entities, float alpha) {
+        for(int i = 0; i < entities.getCount(); i++) {
+            float left = entities.getInterpolatedX(i, alpha);
+            float top = entities.getInterpolatedY(i, alpha);
+            dirtyRegion.include(left, top,
+                    left + entities.getWidth(i), top + entities.getHeight(i));
+        }
+    }
+
+    /**
+     * Renders the buttons and their labels to the HUD layer. The pause button label depends on
+     * the games pause state, so the layer is rendered again on every pause toggle.
+     *
+     * @param paused    the games pause state
+     * @see             CachedLayer#beginRender()
+     * @see             HUD#draw(Canvas, Paint, boolean)
+     */
+    private void renderHudLayer(boolean paused) {
+        hudLayerPaused = paused;
+        hud.draw(hudLayer.beginRender(), paint, paused);
+    }
+
+    /**
+     * Renders the remaining bricks of each shelter to the shelter layer and remembers the brick
+     * version drawn.
+     *
+     * @param snapshot  the simulation state holding the bricks
+     * @see             CachedLayer#beginRender()
+     * @see             GameSnapshot#getBricks(int)
+     * @see             GameSnapshot#getShelterVersion()
+     * @see             Canvas#drawRect(float, float, float, float, Paint)
+     */
+    private void renderShelterLayer(GameSnapshot snapshot) {
+        shelterLayerVersion = snapshot.getShelterVersion();
+        Canvas layer = shelterLayer.beginRender();
+
+        paint.setColor(Color.argb(255,  255, 255, 255));
+        for(int shelterNumber = 0; shelterNumber < ShelterField.SHELTERS; shelterNumber++){
+            long remaining = snapshot.getBricks(shelterNumber);
+            while(remaining != 0) {
+                int brick = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                shelters.getBrickRect(shelterNumber, brick, brickRect);
+                layer.drawRect(brickRect.left, brickRect.top,
+                        brickRect.right, brickRect.bottom, paint);
+            }
+        }
+    }
+}
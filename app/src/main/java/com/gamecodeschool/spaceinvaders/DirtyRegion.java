@@ -0,0 +1,98 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.graphics.Rect;
+
+/**
+ * Tracks the part of the screen that has to be repainted in the next frame. Moving objects report
+ * their bounds each frame, the region to repaint is the union of their bounds in this and the
+ * previous frame plus every area invalidated explicitly. A SurfaceHolder only locks a single
+ * rectangle, so all bounds are merged into one.
+ *
+ * @version %I%, %G%
+ * @see     Rect
+ */
+public class DirtyRegion {
+
+    private final int width;
+    private final int height;
+    private final int maxArea;
+
+    // Bounds of the moving objects drawn in the previous and in this frame
+    private final Rect previous = new Rect();
+    private final Rect current = new Rect();
+
+    private final Rect dirty = new Rect();
+    private boolean full = true;
+
+    /**
+     * Creates a region that asks for a full repaint first.
+     *
+     * @param width         the screens size in x-direction
+     * @param height        the screens size in y-direction
+     * @param maxFraction   the fraction of the screen above which a full repaint is cheaper
+     */
+    public DirtyRegion(int width, int height, float maxFraction) {
+        this.width = width;
+        this.height = height;
+        maxArea = (int) (width * height * maxFraction);
+    }
+
+    /**
+     * Adds the bounds a moving object is drawn at in this frame.
+     *
+     * @param left      the objects left edge
+     * @param top       the objects top edge
+     * @param right     the objects right edge
+     * @param bottom    the objects bottom edge
+     * @see             Rect#union(int, int, int, int)
+     */
+    public void include(float left, float top, float right, float bottom) {
+        // Grown by a pixel to cover rounding of fractional positions
+        current.union((int) left - 1, (int) top - 1, (int) right + 2, (int) bottom + 2);
+    }
+
+    /**
+     * Marks an area that changed independent of the moving objects.
+     *
+     * @param left      the areas left edge
+     * @param top       the areas top edge
+     * @param right     the areas right edge
+     * @param bottom    the areas bottom edge
+     * @see             Rect#union(int, int, int, int)
+     */
+    public void invalidate(int left, int top, int right, int bottom) {
+        dirty.union(left, top, right, bottom);
+    }
+
+    /**
+     * Marks the whole screen for repainting, e.g. after the surface was recreated.
+     */
+    public void invalidateAll() {
+        full = true;
+    }
+
+    /**
+     * Finishes collecting the bounds of this frame and gets the area to repaint. Starts
+     * collecting the next frame.
+     *
+     * @param result    receives the area to repaint, empty if nothing changed
+     * @return          <code>true</code> if only the area in result has to be repainted
+     *                  <code>false</code> if the whole screen has to be repainted
+     * @see             Rect#intersect(int, int, int, int)
+     */
+    public boolean finish(Rect result) {
+        dirty.union(previous);
+        dirty.union(current);
+        if (!dirty.intersect(0, 0, width, height)) {
+            dirty.setEmpty();
+        }
+        boolean partial = !full && dirty.width() * dirty.height() <= maxArea;
+
+        result.set(dirty);
+        previous.set(current);
+        current.setEmpty();
+        dirty.setEmpty();
+        full = false;
+        return partial;
+    }
+}
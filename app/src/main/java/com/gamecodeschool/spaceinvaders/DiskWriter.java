@@ -0,0 +1,42 @@
+package com.gamecodeschool.spaceinvaders;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The one background thread all files of the app are written on. It is shared by every view
+ * the activity creates, so recreating the activity never adds a thread, and writes run one
+ * after the other in the order they were queued: a write queued by a new view starts only after
+ * the writes of the old view have finished. The thread is a daemon and lives as long as the
+ * process.
+ *
+ * @version %I%, %G%
+ * @see     StatsStore
+ * @see     Executors#newSingleThreadExecutor(ThreadFactory)
+ */
+final class DiskWriter {
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "DiskWriter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private DiskWriter() {
+    }
+
+    /**
+     * Queues a write behind all writes queued before.
+     *
+     * @param write the write to run on the writer thread
+     * @see         ExecutorService#execute(Runnable)
+     */
+    static void execute(Runnable write) {
+        WRITER.execute(write);
+    }
+}
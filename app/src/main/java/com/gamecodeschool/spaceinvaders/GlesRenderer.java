@@ -0,0 +1,637 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.opengl.GLES20;
+import android.opengl.GLSurfaceView;
+import android.opengl.GLUtils;
+import android.util.Log;
+import android.view.View;
+
+import com.gamecodeschool.spaceinvaders.core.Box;
+import com.gamecodeschool.spaceinvaders.core.FrameTimer;
+import com.gamecodeschool.spaceinvaders.core.GameSimulation;
+import com.gamecodeschool.spaceinvaders.core.GameSnapshot;
+import com.gamecodeschool.spaceinvaders.core.PhaseProfiler;
+import com.gamecodeschool.spaceinvaders.core.ShelterField;
+import com.gamecodeschool.spaceinvaders.core.TripleBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Draws the game with OpenGL ES 2.0 to a GLSurfaceView. All sprites, bullets and bricks are
+ * collected into one SpriteBatch per frame and drawn with a single call from one texture atlas
+ * holding both invader frames, the player ship and a white block for solid quads. The buttons,
+ * the score line and the profiler overlay are rendered with Canvas into a few CachedLayer bands,
+ * each only as tall as the part of the screen it covers. The bands are stacked in one HUD
+ * texture, which is allocated once per GL context. A band is uploaded into its rows with
+ * glTexSubImage2D only when it changed, so a new score uploads the score line and nothing else.
+ *
+ * The GL thread is the render thread. It draws continuously, paced by the display, from the
+ * latest GameSnapshot the simulation thread published.
+ *
+ * @version %I%, %G%
+ * @see     Renderer
+ * @see     GLSurfaceView
+ * @see     SpriteBatch
+ * @see     CachedLayer
+ */
+public class GlesRenderer implements Renderer, GLSurfaceView.Renderer {
+
+    private static final String TAG = "GlesRenderer";
+
+    // Transparent gap between the sprites of the atlas, keeps them from bleeding into each other
+    private static final int ATLAS_PADDING = 2;
+    private static final int SOLID_SIZE = 4;
+
+    // The bands of the HUD texture, in the order they are stacked
+    private static final int SCORE_LAYER = 0;
+    private static final int PAUSE_LAYER = 1;
+    private static final int CONTROLS_LAYER = 2;
+    private static final int OVERLAY_LAYER = 3;
+    private static final int HUD_LAYERS = 4;
+
+    private static final String VERTEX_SHADER =
+            "uniform vec2 uScale;\n"
+            + "attribute vec2 aPosition;\n"
+            + "attribute vec2 aTexCoord;\n"
+            + "varying vec2 vTexCoord;\n"
+            + "void main() {\n"
+            + "    vTexCoord = aTexCoord;\n"
+            + "    gl_Position = vec4(aPosition.x * uScale.x - 1.0,"
+            + " 1.0 - aPosition.y * uScale.y, 0.0, 1.0);\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER =
+            "precision mediump float;\n"
+            + "uniform sampler2D uTexture;\n"
+            + "varying vec2 vTexCoord;\n"
+            + "void main() {\n"
+            + "    gl_FragColor = texture2D(uTexture, vTexCoord);\n"
+            + "}\n";
+
+    private final GLSurfaceView view;
+
+    private final TripleBuffer<GameSnapshot> snapshots;
+    private final HUD hud;
+
+    // Only the geometry is used, the bricks come from the snapshots
+    private final ShelterField shelters;
+
+    private final PhaseProfiler profiler;
+    private final ProfilerOverlay overlay;
+
+    // Start of the frame interval being timed, 0 if none
+    private long frameIntervalStart;
+
+    private final FrameTimer timer = new FrameTimer();
+
+    // Time from an input to the first frame showing it, and the input last measured
+    private final FrameTimer latencyTimer = new FrameTimer();
+    private long measuredInputTime;
+
+    // Objects allocated by the GL thread in the last frame, only counted in debug builds
+    private volatile int lastFrameDrawAllocations;
+
+    private final int screenX;
+    private final int screenY;
+
+    private final AssetLoader assets;
+
+    // Built and uploaded by the GL thread once the assets are loaded
+    private Bitmap atlas;
+    private boolean atlasUploaded;
+    private final RectF playerRegion = new RectF();
+    private final RectF invaderRegion1 = new RectF();
+    private final RectF invaderRegion2 = new RectF();
+    private final RectF solidRegion = new RectF();
+
+    private final SpriteBatch batch;
+
+    // The HUD bands, the first texture row of each and its region in the HUD texture
+    private final CachedLayer[] hudLayers = new CachedLayer[HUD_LAYERS];
+    private final int[] hudRows = new int[HUD_LAYERS];
+    private final RectF[] hudRegions = new RectF[HUD_LAYERS];
+    private final boolean[] hudUploaded = new boolean[HUD_LAYERS];
+    private final int hudTextureHeight;
+    private boolean hudAllocated;
+
+    private final Paint paint;
+    private final Paint scorePaint;
+    private final HudText hudText = new HudText();
+    private boolean hudPaused;
+
+    private final Box brickRect = new Box();
+    private final SpriteBatch hudBatch = new SpriteBatch(HUD_LAYERS);
+
+    // GL objects, only touched on the GL thread
+    private int program;
+    private int positionHandle;
+    private int texCoordHandle;
+    private int scaleHandle;
+    private int textureHandle;
+    private final int[] textures = new int[2];
+    private FloatBuffer vertexBuffer;
+
+    /**
+     * Creates the GLSurfaceView and the HUD bands: the score line, the pause button, the
+     * movement and fire buttons at the bottom and the profiler overlay. The texture atlas is
+     * built on the GL thread once the sprites are loaded.
+     *
+     * @param context       the context to create the view in
+     * @param simulation    the simulation to size the sprites for
+     * @param snapshots     the snapshots of the simulation to draw
+     * @param hud           the buttons to draw
+     * @param assets        the loader to fetch the scaled sprites from
+     * @see                 GLSurfaceView#setEGLContextClientVersion(int)
+     * @see                 GLSurfaceView#setRenderMode(int)
+     * @see                 ProfilerOverlay
+     * @see                 CachedLayer
+     */
+    public GlesRenderer(Context context, GameSimulation simulation,
+                        TripleBuffer<GameSnapshot> snapshots, HUD hud, AssetLoader assets) {
+        this.snapshots = snapshots;
+        this.hud = hud;
+        this.assets = assets;
+
+        screenX = simulation.getScreenX();
+        screenY = simulation.getScreenY();
+        shelters = new ShelterField(screenX, screenY);
+        profiler = simulation.getProfiler();
+
+        int quads = 1 + simulation.getMaxInvaders()
+                + ShelterField.SHELTERS * ShelterField.COLUMNS * ShelterField.ROWS
+                + simulation.getPlayerBulletStore().size()
+                + simulation.getInvaderBullets().getStore().size();
+        batch = new SpriteBatch(quads);
+
+        paint = new Paint();
+        scorePaint = new Paint();
+        scorePaint.setColor(Color.argb(255,  249, 129, 0));
+        scorePaint.setTextSize(90);
+        int scoreBottom = 90 + (int) Math.ceil(scorePaint.descent());
+        overlay = new ProfilerOverlay(screenX, screenY, scoreBottom + 10);
+
+        // The score line ends where the pause button starts
+        Rect bounds = overlay.getBounds();
+        hudLayers[SCORE_LAYER] = new CachedLayer(hud.profile.right, 0, scoreBottom);
+        hudLayers[PAUSE_LAYER] = new CachedLayer(screenX, hud.pause.top, hud.pause.bottom);
+        hudLayers[CONTROLS_LAYER] = new CachedLayer(screenX, hud.left.top, hud.left.bottom);
+        hudLayers[OVERLAY_LAYER] = new CachedLayer(bounds.right, bounds.top, bounds.bottom);
+
+        int rows = 0;
+        for (int i = 0; i < HUD_LAYERS; i++) {
+            hudRows[i] = rows;
+            rows += hudLayers[i].getBitmap().getHeight();
+        }
+        hudTextureHeight = rows;
+        for (int i = 0; i < HUD_LAYERS; i++) {
+            Bitmap bitmap = hudLayers[i].getBitmap();
+            hudRegions[i] = new RectF(0, (float) hudRows[i] / hudTextureHeight,
+                    (float) bitmap.getWidth() / screenX,
+                    (float) (hudRows[i] + bitmap.getHeight()) / hudTextureHeight);
+        }
+
+        view = new GLSurfaceView(context);
+        view.setEGLContextClientVersion(2);
+        view.setPreserveEGLContextOnPause(true);
+        view.setRenderer(this);
+        view.setRenderMode(GLSurfaceView.RENDERMODE_CONTINUOUSLY);
+    }
+
+    /**
+     * Gets the GLSurfaceView drawn to.
+     *
+     * @return  the view showing the game
+     */
+    @Override
+    public View getView() {
+        return view;
+    }
+
+    /**
+     * Collects all sprites, bullets and bricks of a snapshot into the batch.
+     *
+     * @param snapshot  the simulation state to draw
+     * @param alpha     the fraction of a tick passed since the snapshot, between 0 and 1
+     * @see             SpriteBatch#add(float, float, float, float, RectF)
+     */
+    private void fillBatch(GameSnapshot snapshot, float alpha) {
+        batch.clear();
+
+        // The player ship
+        float playerX = snapshot.getPlayerX(alpha);
+        batch.add(playerX, snapshot.getPlayerTop(), playerX + snapshot.getPlayerLength(),
+                snapshot.getPlayerTop() + snapshot.getPlayerHeight(), playerRegion);
+
+        // The invaders
+        addEntities(snapshot.getInvaders(), alpha,
+                snapshot.getInvaderFrame() ? invaderRegion1 : invaderRegion2);
+
+        // The remaining bricks of each shelter
+        for(int shelterNumber = 0; shelterNumber < ShelterField.SHELTERS; shelterNumber++){
+            long remaining = snapshot.getBricks(shelterNumber);
+            while(remaining != 0) {
+                int brick = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                shelters.getBrickRect(shelterNumber, brick, brickRect);
+                batch.add(brickRect.left, brickRect.top,
+                        brickRect.right, brickRect.bottom, solidRegion);
+            }
+        }
+
+        // The bullets
+        addEntities(snapshot.getBullets(), alpha, solidRegion);
+    }
+
+    /**
+     * Resumes the GL thread.
+     *
+     * @see GLSurfaceView#onResume()
+     * @see AllocationCounter#start()
+     */
+    @Override
+    public void onResume() {
+        AllocationCounter.start();
+        timer.reset();
+        latencyTimer.reset();
+        frameIntervalStart = 0;
+        view.onResume();
+    }
+
+    /**
+     * Pauses the GL thread. Returns once the GL thread finished its frame.
+     *
+     * @see GLSurfaceView#onPause()
+     * @see AllocationCounter#stop()
+     */
+    @Override
+    public void onPause() {
+        view.onPause();
+
+        AllocationCounter.stop();
+    }
+
+    /**
+     * Gets the time spent per frame on the GL thread, excluding the buffer swap.
+     *
+     * @return  the GL threads timer
+     */
+    @Override
+    public FrameTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Gets the number of objects allocated by the GL thread while drawing the last frame.
+     *
+     * @return  the allocation count of the last frame, 0 in release builds
+     */
+    @Override
+    public int getDrawAllocations() {
+        return lastFrameDrawAllocations;
+    }
+
+    /**
+     * Gets the time from a player input to the first frame showing its effect being posted.
+     *
+     * @return  the input latency timer
+     * @see     GameSnapshot#getInputTime()
+     */
+    @Override
+    public FrameTimer getLatencyTimer() {
+        return latencyTimer;
+    }
+
+    /**
+     * Compiles the shaders and creates the textures. Called on the GL thread whenever a new
+     * EGL context was created, so all GL objects are created again.
+     *
+     * @param unused    the GL interface, unused with GLES20
+     * @param config    the EGL configuration of the surface
+     */
+    @Override
+    public void onSurfaceCreated(GL10 unused, EGLConfig config) {
+        program = GLES20.glCreateProgram();
+        GLES20.glAttachShader(program, compileShader(GLES20.GL_VERTEX_SHADER, VERTEX_SHADER));
+        GLES20.glAttachShader(program, compileShader(GLES20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER));
+        GLES20.glLinkProgram(program);
+
+        positionHandle = GLES20.glGetAttribLocation(program, "aPosition");
+        texCoordHandle = GLES20.glGetAttribLocation(program, "aTexCoord");
+        scaleHandle = GLES20.glGetUniformLocation(program, "uScale");
+        textureHandle = GLES20.glGetUniformLocation(program, "uTexture");
+
+        GLES20.glGenTextures(textures.length, textures, 0);
+        for (int i = 0; i < textures.length; i++) {
+            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textures[i]);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+                    GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_NEAREST);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+                    GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_NEAREST);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+                    GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+                    GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        }
+        // Both textures are empty in the new context
+        atlasUploaded = false;
+        hudAllocated = false;
+
+        // Android bitmaps hold premultiplied alpha
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        GLES20.glClearColor(0, 0, 0, 1);
+    }
+
+    /**
+     * Adapts the viewport to the surface size.
+     *
+     * @param unused    the GL interface, unused with GLES20
+     * @param width     the surfaces width
+     * @param height    the surfaces height
+     */
+    @Override
+    public void onSurfaceChanged(GL10 unused, int width, int height) {
+        GLES20.glViewport(0, 0, width, height);
+    }
+
+    /**
+     * Draws the latest snapshot. All sprites, bullets and bricks are drawn with one call, then
+     * the HUD bands are drawn on top with another. A band is rendered and uploaded again only if
+     * its content changed: the score line, the pause state or the profiler overlay. The
+     * profiler overlay band is only drawn while it is visible. The whole method is timed as
+     * the draw phase, the time between two calls as the frame phase. Until the assets are
+     * loaded only the background is cleared; the atlas is built and uploaded in the first frame
+     * after.
+     *
+     * @param unused    the GL interface, unused with GLES20
+     * @see             AssetLoader#isReady()
+     * @see             GLUtils#texImage2D(int, int, Bitmap, int)
+     * @see             #updateHud(GameSnapshot, long)
+     * @see             #uploadHud()
+     * @see             TripleBuffer#acquire()
+     * @see             ProfilerOverlay#update(PhaseProfiler, long)
+     * @see             PhaseProfiler#lap(int, long)
+     * @see             GLES20#glDrawArrays(int, int, int)
+     * @see             AllocationCounter#getThreadCount()
+     */
+    @Override
+    public void onDrawFrame(GL10 unused) {
+        if (!atlasUploaded) {
+            if (!assets.isReady()) {
+                GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+                return;
+            }
+            if (atlas == null) {
+                atlas = buildAtlas(assets.getSprite(R.drawable.playership),
+                        assets.getSprite(R.drawable.invader1),
+                        assets.getSprite(R.drawable.invader2));
+            }
+            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textures[0]);
+            GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, atlas, 0);
+            atlasUploaded = true;
+        }
+
+        long startFrameTime = System.nanoTime();
+        int allocations = AllocationCounter.getThreadCount();
+        long time = profiler.start();
+        frameIntervalStart = frameIntervalStart == 0 ? time
+                : profiler.lap(PhaseProfiler.FRAME, frameIntervalStart);
+
+        GameSnapshot snapshot = snapshots.acquire();
+        fillBatch(snapshot, snapshot.getAlpha(startFrameTime));
+
+        updateHud(snapshot, startFrameTime);
+
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+
+        GLES20.glUseProgram(program);
+        GLES20.glUniform2f(scaleHandle, 2f / screenX, 2f / screenY);
+        GLES20.glUniform1i(textureHandle, 0);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textures[0]);
+        drawBatch(batch);
+
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textures[1]);
+        uploadHud();
+        drawBatch(hudBatch);
+        profiler.lap(PhaseProfiler.DRAW, time);
+
+        lastFrameDrawAllocations = AllocationCounter.getThreadCount() - allocations;
+        timer.record(System.nanoTime() - startFrameTime);
+
+        // The frame is posted right after this method returns
+        if (snapshot.getInputTime() != measuredInputTime) {
+            measuredInputTime = snapshot.getInputTime();
+            latencyTimer.record(System.nanoTime() - measuredInputTime);
+        }
+    }
+
+    /**
+     * Adds all objects of a kind at their interpolated position to the batch.
+     *
+     * @param entities  the objects
+     * @param alpha     the fraction of a tick passed since the snapshot
+     * @param region    the atlas region to show
+     */
+    private void addEntities(GameSnapshot.Entities entities, float alpha, RectF region) {
+        for(int i = 0; i < entities.getCount(); i++) {
+            float left = entities.getInterpolatedX(i, alpha);
+            float top = entities.getInterpolatedY(i, alpha);
+            batch.add(left, top,
+                    left + entities.getWidth(i), top + entities.getHeight(i), region);
+        }
+    }
+
+    /**
+     * Renders the HUD bands whose content changed and marks them for uploading, then collects
+     * the bands to draw into the HUD batch. The buttons are drawn into both button bands, each
+     * band only keeps the buttons inside it.
+     *
+     * @param snapshot  the simulation state to draw
+     * @param now       the current System.nanoTime()
+     * @see             CachedLayer#beginRender()
+     * @see             HudText#set(int, int, int)
+     * @see             HUD#draw(Canvas, Paint, boolean)
+     * @see             ProfilerOverlay#update(PhaseProfiler, long)
+     * @see             ProfilerOverlay#draw(Canvas)
+     */
+    private void updateHud(GameSnapshot snapshot, long now) {
+        boolean paused = snapshot.isPaused();
+        if (hudText.set(snapshot.getScore(), snapshot.getLives(), snapshot.getHighScore())
+                || !hudLayers[SCORE_LAYER].isValid()) {
+            hudLayers[SCORE_LAYER].beginRender().drawText(hudText.getChars(), 0,
+                    hudText.getLength(), 10, 90, scorePaint);
+            hudUploaded[SCORE_LAYER] = false;
+        }
+        if (paused != hudPaused || !hudLayers[PAUSE_LAYER].isValid()) {
+            hud.draw(hudLayers[PAUSE_LAYER].beginRender(), paint, paused);
+            hudPaused = paused;
+            hudUploaded[PAUSE_LAYER] = false;
+        }
+        if (!hudLayers[CONTROLS_LAYER].isValid()) {
+            hud.draw(hudLayers[CONTROLS_LAYER].beginRender(), paint, paused);
+            hudUploaded[CONTROLS_LAYER] = false;
+        }
+        if (overlay.update(profiler, now) || !hudLayers[OVERLAY_LAYER].isValid()) {
+            overlay.draw(hudLayers[OVERLAY_LAYER].beginRender());
+            hudUploaded[OVERLAY_LAYER] = false;
+        }
+
+        hudBatch.clear();
+        int layers = overlay.isVisible() ? HUD_LAYERS : OVERLAY_LAYER;
+        for (int i = 0; i < layers; i++) {
+            Bitmap bitmap = hudLayers[i].getBitmap();
+            int top = hudLayers[i].getTop();
+            hudBatch.add(0, top, bitmap.getWidth(), top + bitmap.getHeight(), hudRegions[i]);
+        }
+    }
+
+    /**
+     * Uploads the HUD bands changed since their last upload into their rows of the bound HUD
+     * texture. The texture is allocated with room for all bands once per GL context, then every
+     * band is uploaded once.
+     *
+     * @see GLES20#glTexImage2D(int, int, int, int, int, int, int, int, java.nio.Buffer)
+     * @see GLUtils#texSubImage2D(int, int, int, int, Bitmap)
+     */
+    private void uploadHud() {
+        if (!hudAllocated) {
+            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, screenX,
+                    hudTextureHeight, 0, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, null);
+            hudAllocated = true;
+            for (int i = 0; i < HUD_LAYERS; i++) {
+                hudUploaded[i] = false;
+            }
+        }
+        for (int i = 0; i < HUD_LAYERS; i++) {
+            if (!hudUploaded[i]) {
+                GLUtils.texSubImage2D(GLES20.GL_TEXTURE_2D, 0, 0, hudRows[i],
+                        hudLayers[i].getBitmap());
+                hudUploaded[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Draws all quads of a batch with the currently bound texture.
+     *
+     * @param batch the batch to draw
+     * @see         GLES20#glVertexAttribPointer(int, int, int, boolean, int, java.nio.Buffer)
+     */
+    private void drawBatch(SpriteBatch batch) {
+        int floats = batch.getQuadCount() * SpriteBatch.FLOATS_PER_QUAD;
+        if (floats == 0) {
+            return;
+        }
+        if (vertexBuffer == null || vertexBuffer.capacity() < floats) {
+            vertexBuffer = ByteBuffer.allocateDirect(batch.getVertices().length * 4)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+        }
+        vertexBuffer.clear();
+        vertexBuffer.put(batch.getVertices(), 0, floats);
+
+        int stride = SpriteBatch.FLOATS_PER_VERTEX * 4;
+        vertexBuffer.position(0);
+        GLES20.glVertexAttribPointer(positionHandle, 2, GLES20.GL_FLOAT, false, stride,
+                vertexBuffer);
+        GLES20.glEnableVertexAttribArray(positionHandle);
+        vertexBuffer.position(2);
+        GLES20.glVertexAttribPointer(texCoordHandle, 2, GLES20.GL_FLOAT, false, stride,
+                vertexBuffer);
+        GLES20.glEnableVertexAttribArray(texCoordHandle);
+
+        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0,
+                batch.getQuadCount() * SpriteBatch.VERTICES_PER_QUAD);
+    }
+
+    /**
+     * Builds a single bitmap holding all sprites side by side and a white block, and records
+     * each sprites texture coordinates.
+     *
+     * @param player    the player ship sprite
+     * @param invader1  the first invader frame
+     * @param invader2  the second invader frame
+     * @return          the atlas bitmap
+     */
+    private Bitmap buildAtlas(Bitmap player, Bitmap invader1, Bitmap invader2) {
+        int width = player.getWidth() + invader1.getWidth() + invader2.getWidth()
+                + SOLID_SIZE + 4 * ATLAS_PADDING;
+        int height = Math.max(SOLID_SIZE,
+                Math.max(player.getHeight(), Math.max(invader1.getHeight(), invader2.getHeight())));
+
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        int x = 0;
+        x = placeSprite(canvas, player, x, playerRegion, width, height);
+        x = placeSprite(canvas, invader1, x, invaderRegion1, width, height);
+        x = placeSprite(canvas, invader2, x, invaderRegion2, width, height);
+
+        // Solid quads sample the centre of the white block only
+        Paint white = new Paint();
+        white.setColor(Color.WHITE);
+        canvas.drawRect(x, 0, x + SOLID_SIZE, SOLID_SIZE, white);
+
+        float u = (x + SOLID_SIZE / 2f) / width;
+        float v = (SOLID_SIZE / 2f) / height;
+        solidRegion.set(u, v, u, v);
+        return bitmap;
+    }
+
+    /**
+     * Draws a sprite into the atlas and records its texture coordinates.
+     *
+     * @param canvas        the canvas drawing to the atlas
+     * @param sprite        the sprite to place
+     * @param x             the sprites left edge within the atlas
+     * @param region        receives the sprites texture coordinates
+     * @param atlasWidth    the atlas size in x-direction
+     * @param atlasHeight   the atlas size in y-direction
+     * @return              the left edge of the next sprite
+     */
+    private int placeSprite(Canvas canvas, Bitmap sprite, int x, RectF region,
+                            int atlasWidth, int atlasHeight) {
+        canvas.drawBitmap(sprite, x, 0, null);
+        region.set((float) x / atlasWidth, 0,
+                (float) (x + sprite.getWidth()) / atlasWidth,
+                (float) sprite.getHeight() / atlasHeight);
+        return x + sprite.getWidth() + ATLAS_PADDING;
+    }
+
+    /**
+     * Compiles a shader.
+     *
+     * @param type      the shaders type
+     * @param source    the shaders source code
+     * @return          the shaders handle
+     * @throws IllegalStateException if the shader does not compile
+     */
+    private int compileShader(int type, String source) {
+        int shader = GLES20.glCreateShader(type);
+        GLES20.glShaderSource(shader, source);
+        GLES20.glCompileShader(shader);
+
+        int[] compiled = new int[1];
+        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compiled, 0);
+        if (compiled[0] == 0) {
+            String log = GLES20.glGetShaderInfoLog(shader);
+            Log.e(TAG, "failed to compile shader: " + log);
+            throw new IllegalStateException("failed to compile shader: " + log);
+        }
+        return shader;
+    }
+}
@@ -0,0 +1,194 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.view.MotionEvent;
+
+import com.gamecodeschool.spaceinvaders.core.InputQueue;
+import com.gamecodeschool.spaceinvaders.core.PhaseProfiler;
+
+/**
+ * Holds all objects to recognize and handle player input, and draws the on screen buttons.
+ *
+ * @version %I%, %G%
+ */
+class HUD {
+
+    Rect left;
+    Rect right;
+    Rect shoot;
+    Rect pause;
+
+    // The score line, tapping it shows or hides the profiler overlay
+    Rect profile;
+
+    int buttonWidth;
+    int buttonHeight;
+    int buttonPadding;
+
+    // Button outlines to draw, built once so drawing them allocates nothing
+    RectF[] buttonShapes;
+
+    private final InputQueue inputs;
+    private final PhaseProfiler profiler;
+
+    /**
+     * Constructs this HUD. Sets button sizes appropriately.
+     *
+     * @param screenWidth   the devices screen width
+     * @param screenHeight  the devices screen height
+     * @param inputs        the queue to pass player commands to the simulation thread
+     * @param profiler      the profiler to enable and disable
+     * @see                 Rect
+     * @see                 RectF#RectF(Rect)
+     */
+    HUD(int screenWidth, int screenHeight, InputQueue inputs, PhaseProfiler profiler) {
+        this.inputs = inputs;
+        this.profiler = profiler;
+
+        buttonWidth = screenWidth / 8;
+        buttonHeight = screenHeight / 7;
+        buttonPadding = screenWidth / 80;
+
+        left = new Rect(buttonPadding,
+                screenHeight - buttonHeight - buttonPadding,
+                buttonWidth,
+                screenHeight - buttonPadding);
+
+        right = new Rect(buttonWidth + buttonPadding,
+                screenHeight - buttonHeight - buttonPadding,
+                buttonWidth + buttonPadding + buttonWidth,
+                screenHeight - buttonPadding);
+
+        shoot = new Rect(screenWidth - buttonWidth - buttonPadding,
+                screenHeight - buttonHeight - buttonPadding,
+                screenWidth - buttonPadding,
+                screenHeight - buttonPadding);
+
+        pause = new Rect(screenWidth - buttonPadding - buttonWidth,
+                buttonPadding,
+                screenWidth - buttonPadding,
+                buttonPadding + buttonHeight);
+
+        profile = new Rect(0, 0, pause.left - buttonPadding, buttonHeight);
+
+        buttonShapes = new RectF[] {
+                new RectF(left),
+                new RectF(right),
+                new RectF(shoot),
+                new RectF(pause)
+        };
+    }
+
+    /**
+     * Draws the buttons and their labels. The pause button is labeled depending on the games
+     * pause state.
+     *
+     * @param canvas    the canvas to draw to
+     * @param paint     the paint to draw with, its color and text size are changed
+     * @param paused    the games pause state
+     * @see             Canvas#drawRoundRect(RectF, float, float, Paint)
+     * @see             Canvas#drawText(String, float, float, Paint)
+     */
+    void draw(Canvas canvas, Paint paint, boolean paused) {
+        paint.setColor(Color.argb(80, 255, 255, 255));
+
+        for (int i = 0; i < buttonShapes.length; i++) {
+            canvas.drawRoundRect(buttonShapes[i], 15f, 15f, paint);
+        }
+
+        // Draw button Text
+        paint.setColor(Color.argb(255,  249, 129, 0));
+        paint.setTextSize(buttonWidth/3);
+        canvas.drawText(
+                "L",
+                left.left+buttonWidth*12/32,
+                left.top+buttonHeight*2/3,
+                paint);
+        canvas.drawText(
+                "R",
+                right.left+buttonWidth*12/32,
+                right.top+buttonHeight*2/3,
+                paint);
+        canvas.drawText(
+                "FIRE!",
+                shoot.left+buttonWidth/8,
+                shoot.top+buttonHeight*2/3,
+                paint);
+        if(paused) {
+            canvas.drawText(
+                    "Play",
+                    pause.left+buttonWidth*3/16,
+                    pause.top+buttonHeight*2/3,
+                    paint);
+        } else {
+            canvas.drawText(
+                    "Pause",
+                    pause.left+buttonWidth/32,
+                    pause.top+buttonHeight*2/3,
+                    paint);
+        }
+    }
+
+    /**
+     * Handles screen touches and player input.
+     * Turns touches on the buttons into commands to start and pause the game, move the player
+     * ship and fire bullets. The commands are stamped with the touch time and queued for the
+     * simulation thread, the simulation itself is never touched from the UI thread. Tapping the
+     * score line shows or hides the profiler overlay.
+     *
+     * @param motionEvent   the touch event, represents player input
+     * @param index         the touch event pointer index to handle multiple
+     *                      simultaneous screen touches
+     * @see                 MotionEvent
+     * @see                 MotionEvent#getX()
+     * @see                 MotionEvent#getY()
+     * @see                 SpaceInvadersView#onTouchEvent(MotionEvent)
+     * @see                 Rect#contains(int, int)
+     * @see                 HUD#handleInput(MotionEvent, int)
+     * @see                 MotionEvent#getEventTime()
+     * @see                 InputQueue#offer(int, long)
+     * @see                 PhaseProfiler#setEnabled(boolean)
+     */
+    public void handleInput(MotionEvent motionEvent, int index) {
+
+        int x = (int) motionEvent.getX(index);
+        int y = (int) motionEvent.getY(index);
+
+        // Event times are uptime milliseconds, which share their clock with System.nanoTime()
+        long time = motionEvent.getEventTime() * 1000000;
+
+        switch (motionEvent.getAction() & MotionEvent.ACTION_MASK) {
+            case MotionEvent.ACTION_DOWN:
+                if (right.contains(x, y)) {
+                    inputs.offer(InputQueue.MOVE_RIGHT, time);
+                } else if (left.contains(x, y)) {
+                    inputs.offer(InputQueue.MOVE_LEFT, time);
+                } else if (shoot.contains(x, y)) {
+                    inputs.offer(InputQueue.FIRE, time);
+                } else if(pause.contains(x, y)) {
+                    inputs.offer(InputQueue.TOGGLE_PAUSE, time);
+                } else if(profile.contains(x, y)) {
+                    profiler.setEnabled(!profiler.isEnabled());
+                }
+                break;
+
+            case MotionEvent.ACTION_UP:
+                if (right.contains(x, y) || left.contains(x, y)){
+                    inputs.offer(InputQueue.STOP, time);
+                }
+                break;
+
+            case MotionEvent.ACTION_POINTER_DOWN:
+                if (shoot.contains(x, y)) {
+                    inputs.offer(InputQueue.FIRE, time);
+                } else if(pause.contains(x, y)) {
+                    inputs.offer(InputQueue.TOGGLE_PAUSE, time);
+                }
+                break;
+        }
+    }
+}
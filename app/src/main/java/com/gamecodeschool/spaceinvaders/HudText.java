@@ -0,0 +1,103 @@
+package com.gamecodeschool.spaceinvaders;
+
+/**
+ * Holds the score line drawn at the top of the screen in a reusable char buffer. The line is
+ * only rebuilt when one of its values changed, so drawing it each frame allocates nothing.
+ *
+ * @version %I%, %G%
+ */
+public class HudText {
+
+    private static final String SCORE = "Score: ";
+    private static final String LIVES = "   Lives: ";
+    private static final String HIGH_SCORE = "   High Score: ";
+
+    // Labels plus three ints of at most 11 characters each
+    private final char[] chars = new char[SCORE.length() + LIVES.length() + HIGH_SCORE.length() + 33];
+    private int length;
+
+    private int score = -1;
+    private int lives = -1;
+    private int highScore = -1;
+
+    /**
+     * Updates the line to the given values. Does nothing if the values are unchanged.
+     *
+     * @param score     the players score
+     * @param lives     the players remaining lives
+     * @param highScore the high score
+     * @return          <code>true</code> if the line was rebuilt
+     *                  <code>false</code> else
+     */
+    public boolean set(int score, int lives, int highScore) {
+        if (score == this.score && lives == this.lives && highScore == this.highScore) {
+            return false;
+        }
+
+        this.score = score;
+        this.lives = lives;
+        this.highScore = highScore;
+
+        length = 0;
+        append(SCORE);
+        append(score);
+        append(LIVES);
+        append(lives);
+        append(HIGH_SCORE);
+        append(highScore);
+        return true;
+    }
+
+    /**
+     * Gets the buffer holding the line. Only the first getLength() characters are valid.
+     *
+     * @return  the character buffer
+     */
+    public char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * Gets the number of valid characters in the buffer.
+     *
+     * @return  the lines length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Appends a string to the buffer.
+     *
+     * @param text  the string to append
+     * @see         String#getChars(int, int, char[], int)
+     */
+    private void append(String text) {
+        text.getChars(0, text.length(), chars, length);
+        length += text.length();
+    }
+
+    /**
+     * Appends the decimal digits of a number to the buffer.
+     *
+     * @param value the number to append
+     */
+    private void append(int value) {
+        if (value < 0) {
+            chars[length++] = '-';
+        }
+
+        // Count the digits first, then fill them in from the back; negated to cover MIN_VALUE
+        int negative = value < 0 ? value : -value;
+        int digits = 1;
+        for (int rest = negative / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+
+        for (int i = length + digits - 1; i >= length; i--) {
+            chars[i] = (char) ('0' - negative % 10);
+            negative /= 10;
+        }
+        length += digits;
+    }
+}
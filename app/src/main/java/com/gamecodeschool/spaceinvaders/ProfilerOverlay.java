@@ -0,0 +1,190 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import com.gamecodeschool.spaceinvaders.core.Histogram;
+import com.gamecodeschool.spaceinvaders.core.PhaseProfiler;
+
+/**
+ * Shows the p50, p95, p99 and maximum time of each profiled phase as a table in the top left
+ * corner of the screen. The table is held in reusable char buffers and only rebuilt every
+ * REFRESH_NANOS, so drawing it allocates nothing.
+ *
+ * @version %I%, %G%
+ * @see     PhaseProfiler
+ */
+public class ProfilerOverlay {
+
+    /**
+     * Time between two rebuilds of the table, so the numbers stay readable.
+     */
+    private static final long REFRESH_NANOS = 500000000L;
+
+    private static final String HEADER = "phase (us)         p50     p95     p99     max";
+    private static final int NAME_COLUMN = 14;
+    private static final int VALUE_COLUMN = 8;
+    private static final int LINE_LENGTH = NAME_COLUMN + 4 * VALUE_COLUMN;
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private final char[][] lines = new char[PhaseProfiler.PHASES + 1][];
+    private final int[] lengths = new int[PhaseProfiler.PHASES + 1];
+    private int lineCount;
+
+    private final Paint textPaint;
+    private final Paint backgroundPaint;
+    private final Rect bounds;
+    private final float lineHeight;
+
+    private long lastRefreshTime;
+    private boolean visible;
+
+    /**
+     * Creates an empty overlay sized for the screen.
+     *
+     * @param screenX   the screens size in x-direction
+     * @param screenY   the screens size in y-direction
+     * @param top       the overlays top edge
+     * @see             Paint#measureText(String)
+     */
+    public ProfilerOverlay(int screenX, int screenY, int top) {
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = new char[Math.max(LINE_LENGTH, HEADER.length())];
+        }
+        HEADER.getChars(0, HEADER.length(), lines[0], 0);
+        lengths[0] = HEADER.length();
+
+        textPaint = new Paint();
+        textPaint.setColor(Color.argb(255, 0, 255, 0));
+        textPaint.setTypeface(Typeface.MONOSPACE);
+        textPaint.setTextSize(screenY / 36);
+
+        backgroundPaint = new Paint();
+        backgroundPaint.setColor(Color.argb(160, 0, 0, 0));
+
+        lineHeight = textPaint.getFontSpacing();
+        int width = (int) Math.ceil(textPaint.measureText(HEADER)) + 20;
+        int height = (int) Math.ceil(lineHeight * lines.length) + 20;
+        bounds = new Rect(10, top, Math.min(screenX, 10 + width), top + height);
+    }
+
+    /**
+     * Rebuilds the table from the profilers histograms if it is visible and REFRESH_NANOS passed
+     * since the last rebuild, or if it just became visible.
+     *
+     * @param profiler  the profiler to show
+     * @param now       the current System.nanoTime()
+     * @return          <code>true</code> if the overlay has to be drawn again because the table
+     *                  changed or the overlay was shown or hidden
+     *                  <code>false</code> else
+     * @see             Histogram#getValueAtPercentile(double)
+     */
+    public boolean update(PhaseProfiler profiler, long now) {
+        boolean enabled = profiler.isEnabled();
+        if (!enabled) {
+            boolean hidden = visible;
+            visible = false;
+            return hidden;
+        }
+        if (visible && now - lastRefreshTime < REFRESH_NANOS) {
+            return false;
+        }
+        visible = true;
+        lastRefreshTime = now;
+
+        lineCount = 1;
+        for (int phase = 0; phase < PhaseProfiler.PHASES; phase++) {
+            Histogram histogram = profiler.getHistogram(phase);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+
+            char[] line = lines[lineCount];
+            String name = PhaseProfiler.getName(phase);
+            int nameLength = Math.min(name.length(), NAME_COLUMN - 1);
+            name.getChars(0, nameLength, line, 0);
+            for (int i = nameLength; i < NAME_COLUMN; i++) {
+                line[i] = ' ';
+            }
+
+            int end = NAME_COLUMN;
+            for (double percentile : PERCENTILES) {
+                end += VALUE_COLUMN;
+                putMicros(line, end, histogram.getValueAtPercentile(percentile));
+            }
+            end += VALUE_COLUMN;
+            putMicros(line, end, histogram.getMax());
+
+            lengths[lineCount] = end;
+            lineCount++;
+        }
+        return true;
+    }
+
+    /**
+     * Gets whether the overlay is shown.
+     *
+     * @return  <code>true</code> if the profiler was enabled at the last update
+     *          <code>false</code> else
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Gets the screen area the overlay covers when visible.
+     *
+     * @return  the overlays bounds
+     */
+    public Rect getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Draws the table on a translucent background. Does nothing if the overlay is hidden.
+     *
+     * @param canvas    the canvas to draw to
+     * @see             Canvas#drawText(char[], int, int, float, float, Paint)
+     */
+    public void draw(Canvas canvas) {
+        if (!visible) {
+            return;
+        }
+
+        canvas.drawRect(bounds, backgroundPaint);
+        float y = bounds.top + 10 + lineHeight;
+        for (int i = 0; i < lineCount; i++) {
+            canvas.drawText(lines[i], 0, lengths[i], bounds.left + 10, y, textPaint);
+            y += lineHeight;
+        }
+    }
+
+    /**
+     * Writes a duration right aligned in microseconds with one decimal into a column ending at
+     * the given position. Values too wide for the column are capped at 9999.9.
+     *
+     * @param line  the line to write to
+     * @param end   the index after the columns last character
+     * @param nanos the duration in nanoseconds
+     */
+    private static void putMicros(char[] line, int end, long nanos) {
+        long tenths = Math.min(nanos / 100, 99999);
+        int i = end - 1;
+
+        line[i--] = (char) ('0' + tenths % 10);
+        line[i--] = '.';
+        tenths /= 10;
+        do {
+            line[i--] = (char) ('0' + tenths % 10);
+            tenths /= 10;
+        } while (tenths != 0);
+
+        while (i >= end - VALUE_COLUMN) {
+            line[i--] = ' ';
+        }
+    }
+}
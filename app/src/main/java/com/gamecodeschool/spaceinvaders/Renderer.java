@@ -0,0 +1,64 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.view.View;
+
+import com.gamecodeschool.spaceinvaders.core.FrameTimer;
+import com.gamecodeschool.spaceinvaders.core.GameSnapshot;
+import com.gamecodeschool.spaceinvaders.core.TripleBuffer;
+
+/**
+ * Draws the state of a running GameSimulation to the screen. Renderers draw on their own thread
+ * from GameSnapshots the simulation thread publishes to a TripleBuffer, so neither thread waits
+ * for the other. Implementations differ in the graphics API used.
+ *
+ * @version %I%, %G%
+ * @see     CanvasRenderer
+ * @see     GlesRenderer
+ * @see     GameSnapshot
+ * @see     TripleBuffer
+ */
+public interface Renderer {
+
+    /**
+     * Gets the view this renderer draws to. It is added to the game view once.
+     *
+     * @return  the view showing the game
+     */
+    View getView();
+
+    /**
+     * Starts drawing the latest published GameSnapshot on the renderers own thread. Called when
+     * the game is resumed.
+     */
+    void onResume();
+
+    /**
+     * Stops drawing. Returns once the render thread stopped touching the snapshots. Called when
+     * the game is paused.
+     */
+    void onPause();
+
+    /**
+     * Gets the time spent per frame on the render thread.
+     *
+     * @return  the render threads timer
+     */
+    FrameTimer getTimer();
+
+    /**
+     * Gets the number of objects allocated while drawing the last frame. Allocations are only
+     * counted in debug builds, release builds always report 0.
+     *
+     * @return  the allocation count of the last frame
+     */
+    int getDrawAllocations();
+
+    /**
+     * Gets the time from a player input to the first frame showing its effect being posted.
+     * Only frames drawn from a snapshot with a newer input time than the last are recorded.
+     *
+     * @return  the input latency timer
+     * @see     GameSnapshot#getInputTime()
+     */
+    FrameTimer getLatencyTimer();
+}
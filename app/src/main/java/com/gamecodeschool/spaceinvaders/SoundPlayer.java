@@ -0,0 +1,94 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.media.SoundPool;
+import android.util.Log;
+
+import com.gamecodeschool.spaceinvaders.core.AudioMixer;
+import com.gamecodeschool.spaceinvaders.core.GameSimulation;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays the sounds picked by an AudioMixer on its own thread, once per simulation tick. Every
+ * SoundPool.play() is a call into the audio service, so it is kept off the simulation thread
+ * and bounded to the mixers per frame limit.
+ *
+ * @version %I%, %G%
+ * @see     AudioMixer
+ * @see     SoundPool
+ */
+public class SoundPlayer implements Runnable {
+
+    private final SoundPool soundPool;
+    private final AssetLoader assets;
+    private final AudioMixer mixer;
+    private final int[] played;
+
+    private Thread thread;
+    private volatile boolean playing;
+
+    /**
+     * Creates a stopped player.
+     *
+     * @param soundPool the pool playing the sounds
+     * @param assets    the loader holding the sounds ids, the mixers sound indices are its
+     *                  sound indices
+     * @param mixer     the mixer picking the sounds to play
+     */
+    public SoundPlayer(SoundPool soundPool, AssetLoader assets, AudioMixer mixer) {
+        this.soundPool = soundPool;
+        this.assets = assets;
+        this.mixer = mixer;
+        played = new int[mixer.getMaxPerFrame()];
+    }
+
+    /**
+     * Starts the audio thread.
+     *
+     * @see Thread#start()
+     */
+    public void start() {
+        playing = true;
+        thread = new Thread(this, "SoundPlayer");
+        thread.start();
+    }
+
+    /**
+     * Stops the audio thread and waits for it to end. Events posted meanwhile are kept until the
+     * next start.
+     *
+     * @see Thread#join()
+     */
+    public void stop() {
+        playing = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Log.e("Error:", "joining thread");
+        }
+    }
+
+    /**
+     * Mixes and plays the sounds of one frame per tick until stopped. Nothing is played before
+     * the assets are loaded, sounds which failed to load are skipped.
+     *
+     * @see AudioMixer#mix(long, int[])
+     * @see SoundPool#play(int, float, float, int, int, float)
+     * @see LockSupport#parkNanos(long)
+     */
+    @Override
+    public void run() {
+        while (playing) {
+            if (assets.isReady()) {
+                int count = mixer.mix(System.nanoTime(), played);
+                for (int i = 0; i < count; i++) {
+                    int id = assets.getSoundId(played[i]);
+                    if (id > 0) {
+                        soundPool.play(id, 1, 1, mixer.getPriority(played[i]), 0, 1);
+                    }
+                }
+            }
+            LockSupport.parkNanos(GameSimulation.NANOS_PER_TICK);
+        }
+    }
+}
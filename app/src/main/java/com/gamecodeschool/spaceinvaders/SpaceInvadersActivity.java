@@ -16,6 +16,31 @@ import android.view.View;
  */
 public class SpaceInvadersActivity extends Activity {
 
+    /**
+     * Intent extra naming the renderer to start with, e.g. to compare them on one device with
+     * <code>adb shell am start -n com.gamecodeschool.spaceinvaders/.SpaceInvadersActivity
+     * --es renderer gles</code>.
+     */
+    public static final String EXTRA_RENDERER = "renderer";
+
+    /**
+     * Intent extra naming the game mode, MODE_ENDLESS for ever bigger waves, e.g. to stress the
+     * update and draw paths with <code>adb shell am start
+     * -n com.gamecodeschool.spaceinvaders/.SpaceInvadersActivity --es mode endless</code>.
+     * Any other value or none plays the classic game.
+     */
+    public static final String EXTRA_MODE = "mode";
+
+    /**
+     * The EXTRA_MODE value of the endless game.
+     */
+    public static final String MODE_ENDLESS = "endless";
+
+    /**
+     * Instance state key of the game state saved on the last pause.
+     */
+    private static final String STATE_GAME = "game";
+
     /**
      * The game view. Will hold this games logic and respond to user input.
      */
@@ -23,7 +48,10 @@ public class SpaceInvadersActivity extends Activity {
 
     /**
      * Executes on this Activities creation.
-     * Sets up this SpaceInvadersView.
+     * Sets up this SpaceInvadersView with the renderer and game mode named by the launching
+     * intent, or the configured default renderer and the classic game. If the activity is
+     * recreated, e.g. after its process was killed in the background, the game continues from
+     * the saved instance state.
      *
      * @param savedInstanceState    the instance state to create or restore
      * @see                         Activity#onCreate(Bundle)
@@ -32,6 +60,9 @@ public class SpaceInvadersActivity extends Activity {
      * @see                         View
      * @see                         Display
      * @see                         Point
+     * @see                         #EXTRA_RENDERER
+     * @see                         #EXTRA_MODE
+     * @see                         SpaceInvadersView#restoreState(byte[])
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -43,7 +74,20 @@ public class SpaceInvadersActivity extends Activity {
         display.getSize(size);
 
 
-        spaceInvadersView = new SpaceInvadersView(this, size.x, size.y);
+        String renderer = getIntent().getStringExtra(EXTRA_RENDERER);
+        if (renderer == null) {
+            renderer = getString(R.string.renderer);
+        }
+
+        boolean endless = MODE_ENDLESS.equals(getIntent().getStringExtra(EXTRA_MODE));
+
+        spaceInvadersView = new SpaceInvadersView(this, size.x, size.y, renderer, endless);
+        if (savedInstanceState != null) {
+            byte[] state = savedInstanceState.getByteArray(STATE_GAME);
+            if (state != null) {
+                spaceInvadersView.restoreState(state);
+            }
+        }
         setContentView(spaceInvadersView);
 
     }
@@ -62,7 +106,8 @@ public class SpaceInvadersActivity extends Activity {
     }
 
     /**
-     * Executes on the game losing focus or being quit.
+     * Executes on the game losing focus or being quit. Pausing the view also hands the session
+     * stats to their background writer, the process may be killed any time after this.
      *
      * @see Activity#onPause()
      * @see SpaceInvadersView#pause()
@@ -73,4 +118,22 @@ public class SpaceInvadersActivity extends Activity {
 
         spaceInvadersView.pause();
     }
+
+    /**
+     * Keeps the game state saved by the views last pause, so the system can hand it back to
+     * onCreate() if it kills the process while the game is in the background.
+     *
+     * @param outState  the bundle to save the instance state into
+     * @see             Activity#onSaveInstanceState(Bundle)
+     * @see             SpaceInvadersView#getSavedState()
+     */
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+
+        byte[] state = spaceInvadersView.getSavedState();
+        if (state != null) {
+            outState.putByteArray(STATE_GAME, state);
+        }
+    }
 }
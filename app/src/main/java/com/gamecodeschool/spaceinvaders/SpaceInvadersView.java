@@ -1,698 +1,782 @@
 package com.gamecodeschool.spaceinvaders;
 
+import android.app.ActivityManager;
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.content.res.AssetFileDescriptor;
-import android.content.res.AssetManager;
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Rect;
-import android.graphics.RectF;
 import android.media.AudioManager;
 import android.media.SoundPool;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.MotionEvent;
-import android.view.Surface;
-import android.view.SurfaceHolder;
-import android.view.SurfaceView;
-
+import android.widget.FrameLayout;
+
+import com.gamecodeschool.spaceinvaders.core.AudioMixer;
+import com.gamecodeschool.spaceinvaders.core.BulletPool;
+import com.gamecodeschool.spaceinvaders.core.FrameTimer;
+import com.gamecodeschool.spaceinvaders.core.GameListener;
+import com.gamecodeschool.spaceinvaders.core.GameSimulation;
+import com.gamecodeschool.spaceinvaders.core.GameSnapshot;
+import com.gamecodeschool.spaceinvaders.core.InputQueue;
+import com.gamecodeschool.spaceinvaders.core.PhaseProfiler;
+import com.gamecodeschool.spaceinvaders.core.PlayerShip;
+import com.gamecodeschool.spaceinvaders.core.Replay;
+import com.gamecodeschool.spaceinvaders.core.SessionStats;
+import com.gamecodeschool.spaceinvaders.core.TripleBuffer;
+import com.gamecodeschool.spaceinvaders.core.WaveSchedule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Holds and draws this games elements. Handles player input and game object collision detection.
+ * Runs this game. Drives the GameSimulation holding the games rules on the simulation thread,
+ * publishes a GameSnapshot after each step for the Renderer drawing on its own thread, forwards
+ * player input to the simulation and posts sounds for its events to the AudioMixer, which the
+ * SoundPlayer plays on a third thread. The renderers view is the only
+ * child of this layout. Sounds and sprites are loaded in the background; the game only starts
+ * once they are all in.
  *
  * @version %I%, %G%
- * @see     SurfaceView
+ * @see     FrameLayout
  * @see     Runnable
+ * @see     GameSimulation
+ * @see     GameListener
+ * @see     GameSnapshot
+ * @see     TripleBuffer
+ * @see     Renderer
+ * @see     AssetLoader
+ * @see     AudioMixer
+ * @see     SoundPlayer
  */
-public class SpaceInvadersView extends SurfaceView implements Runnable {
+public class SpaceInvadersView extends FrameLayout implements Runnable, GameListener {
+
+    /**
+     * Renderer name selecting the software Canvas renderer.
+     */
+    public static final String RENDERER_CANVAS = "canvas";
+
+    /**
+     * Renderer name selecting the OpenGL ES 2.0 sprite batch renderer.
+     */
+    public static final String RENDERER_GLES = "gles";
 
     private Context context;
     private Thread gameThread = null;
-    private SurfaceHolder ourHolder;
 
     private volatile boolean playing;
-    private boolean paused = true;
-
-    private Canvas canvas;
-    private Paint paint;
 
-    private long fps;
-    private long timeThisFrame;
+    private static final long NANOS_PER_TICK = GameSimulation.NANOS_PER_TICK;
 
-    private int screenX;
-    private int screenY;
+    /**
+     * Number of player commands the UI thread can queue before the simulation thread takes them.
+     */
+    private static final int INPUT_CAPACITY = 64;
 
-    private HUD hud;
+    /**
+     * Upper bound of simulation ticks run to catch up after a stall. Any backlog beyond this is
+     * dropped so a stalled device slows the game down instead of spiralling.
+     */
+    private static final int MAX_TICKS_PER_FRAME = 5;
 
-    private PlayerShip playerShip;
-    private Bullet bullet;
-    private Bullet[] invadersBullets = new Bullet[200];
-    private int nextBullet;
-    private int maxInvaderBullets = 10;
-    private Invader[] invaders = new Invader[60];
-    int numInvaders = 0;
-    private DefenceBrick[] bricks = new DefenceBrick[400];
-    private int numBricks;
+    /**
+     * Upper bound of sounds started per audio frame.
+     */
+    private static final int MAX_SOUNDS_PER_FRAME = 3;
 
-    private SoundPool soundPool;
-    private int playerExplodeID = -1;
-    private int invaderExplodeID = -1;
-    private int shootID = -1;
-    private int damageShelterID = -1;
-    private int uhID = -1;
-    private int ohID = -1;
+    /**
+     * Minimum time between two plays of the sounds that can fire many times in a burst.
+     */
+    private static final long SHELTER_SOUND_COOLDOWN = 60000000;
+    private static final long INVADER_SOUND_COOLDOWN = 30000000;
 
-    public static final String PREFS_NAME = "com.gamecodeschool.spaceinvaders.PrefsFile";
-    private int highScore;
-    int score = 0;
-    private int lives = 3;
+    /**
+     * Initial buffer size for the saved game state, which takes under 200 bytes for the
+     * classic wave. Endless games with many invader bullets let the buffer grow.
+     */
+    private static final int STATE_CAPACITY = 256;
 
-    private long menaceInterval = 1000;
-    private boolean uhOrOh;
-    private long lastMenaceTime = System.currentTimeMillis();
+    /**
+     * Name of the replay file in the output directory, each pause replaces it.
+     */
+    private static final String REPLAY_FILE = "replay.bin";
 
     /**
-     * Constructs this SpaceInvadersView
-     *
-     * @param context   the instance state to create or restore
-     * @param x         the screens size in x-direction
-     * @param y         the screens size in y-direction
-     * @see             Context
-     * @see             SurfaceView
-     * @see             SurfaceHolder
-     * @see             SharedPreferences
-     * @see             SurfaceHolder
-     * @see             Paint
-     * @see             HUD
-     * @see             SoundPool
-     * @see             AssetManager
-     * @see             AssetFileDescriptor
-     * @see             Log
-     * @see             #prepareLevel()
-     * @see             SurfaceView#getHandler()
-     * @see             Context#getSharedPreferences(String, int)
-     * @see             Context#getAssets()
-     * @see             SharedPreferences#getInt(String, int)
-     * @see             AssetManager#openFd(String)
-     * @see             SoundPool#load(String, int)
-     * @see             Log#e(String, String)
-     */
-    public SpaceInvadersView(Context context, int x, int y) {
-        super(context);
+     * Name of the profile file in the output directory, each time the overlay is hidden
+     * replaces it.
+     */
+    private static final String PROFILE_FILE = "profile.txt";
 
-        this.context = context;
+    private int screenX;
+    private int screenY;
 
-        SharedPreferences settings = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        highScore = settings.getInt("highScore", 0);
+    private HUD hud;
 
-        ourHolder = getHolder();
-        paint = new Paint();
+    private SpriteCache sprites;
 
-        screenX = x;
-        screenY = y;
+    private GameSimulation simulation;
 
-        hud = new HUD(screenX, screenY);
+    private PhaseProfiler profiler;
 
-        soundPool = new SoundPool(10, AudioManager.STREAM_MUSIC, 0);
+    // Records this game since the view was created in debug builds, written on every pause
+    private Replay replay;
 
-        try {
-            AssetManager assetManager = context.getAssets();
-            AssetFileDescriptor descriptor;
+    private Renderer renderer;
 
-            descriptor = assetManager.openFd("shoot.ogg");
-            shootID = soundPool.load(descriptor, 0);
+    // Written by the UI thread, read by the simulation thread
+    private final InputQueue inputs = new InputQueue(INPUT_CAPACITY);
 
-            descriptor = assetManager.openFd("invaderexplode.ogg");
-            invaderExplodeID = soundPool.load(descriptor, 0);
+    // Written by the simulation thread, read by the render thread
+    private TripleBuffer<GameSnapshot> snapshots;
 
-            descriptor = assetManager.openFd("damageshelter.ogg");
-            damageShelterID = soundPool.load(descriptor, 0);
+    // Time spent per step of the simulation thread since the last resume
+    private final FrameTimer simulationTimer = new FrameTimer();
 
-            descriptor = assetManager.openFd("playerexplode.ogg");
-            playerExplodeID = soundPool.load(descriptor, 0);
+    // Exact rectangle intersection tests run in the last complete frame
+    private volatile int lastFrameNarrowPhaseTests;
 
-            descriptor = assetManager.openFd("damageshelter.ogg");
-            damageShelterID = soundPool.load(descriptor, 0);
+    // The game state written on the last pause, kept by the activity across process death
+    private byte[] savedState;
 
-            descriptor = assetManager.openFd("uh.ogg");
-            uhID = soundPool.load(descriptor, 0);
+    private SoundPool soundPool;
+    private AssetLoader assets;
 
-            descriptor = assetManager.openFd("oh.ogg");
-            ohID = soundPool.load(descriptor, 0);
+    // Written by the simulation thread, mixed and played by the sound player
+    private AudioMixer mixer;
+    private SoundPlayer soundPlayer;
 
-        } catch (IOException e) {
-            Log.e("error", "failed to load sound files");
-        }
+    // Indices of the sounds in the asset loader and the mixer
+    private int playerExplodeSound;
+    private int invaderExplodeSound;
+    private int shootSound;
+    private int damageShelterSound;
+    private int uhSound;
+    private int ohSound;
 
-        prepareLevel();
-    }
+    // Recorded by the simulation thread, written behind by the store
+    private StatsStore stats;
+
+    // Uptime the view was created at, to log the time until the first frame
+    private final long createTime = SystemClock.uptimeMillis();
+    private boolean firstFrameLogged;
+
+    public static final String PREFS_NAME = "com.gamecodeschool.spaceinvaders.PrefsFile";
+
+    private boolean uhOrOh;
+    private long lastMenaceTime = System.nanoTime() / 1000000;
 
     /**
-     * Initializes the game objects.
+     * Constructs this SpaceInvadersView
      *
-     * @see PlayerShip
-     * @see Bullet
-     * @see DefenceBrick
+     * @param context       the instance state to create or restore
+     * @param x             the screens size in x-direction
+     * @param y             the screens size in y-direction
+     * @param rendererName  the renderer to draw with, RENDERER_CANVAS or RENDERER_GLES
+     * @param endless       <code>true</code> to play the endless waves
+     *                      <code>false</code> to play the classic game
+     * @see                 Context
+     * @see                 FrameLayout
+     * @see                 SharedPreferences
+     * @see                 HUD
+     * @see                 SoundPool
+     * @see                 AssetLoader
+     * @see                 StatsStore
+     * @see                 Log
+     * @see                 GameSimulation
+     * @see                 WaveSchedule
+     * @see                 Replay
+     * @see                 SpriteCache
+     * @see                 GameSnapshot
+     * @see                 TripleBuffer
+     * @see                 InputQueue
+     * @see                 #createRenderer(String)
+     * @see                 Context#getSharedPreferences(String, int)
+     * @see                 Context#getAssets()
+     * @see                 SharedPreferences#getInt(String, int)
+     * @see                 AssetLoader#start()
+     * @see                 Log#i(String, String)
      */
-    private void prepareLevel() {
+    public SpaceInvadersView(Context context, int x, int y, String rendererName,
+                             boolean endless) {
+        super(context);
+
+        this.context = context;
 
-        menaceInterval = 1000;
-        playerShip = new PlayerShip(context, screenX, screenY);
-        bullet = new Bullet(screenY);
+        screenX = x;
+        screenY = y;
 
-        for(int i=0; i< invadersBullets.length; i++) {
-            invadersBullets[i] = new Bullet(screenY);
+        if (endless) {
+            simulation = new GameSimulation(screenX, screenY, WaveSchedule.endless(),
+                    WaveSchedule.ENDLESS_MAX_INVADER_BULLETS, System.nanoTime());
+        } else {
+            simulation = new GameSimulation(screenX, screenY);
         }
+        simulation.setListener(this);
 
-        numInvaders = 0;
-        for(int row=0; row<5; row++) {
-            for(int column=0; column<6; column++) {
-                invaders[numInvaders] = new Invader(context, row, column, screenX, screenY);
-                numInvaders++;
-            }
+        if (BuildConfig.DEBUG) {
+            replay = new Replay(simulation);
+            simulation.setReplay(replay);
         }
 
-        numBricks = 0;
-        for(int shelterNumber = 0; shelterNumber < 4; shelterNumber++){
-            for(int column = 0; column < 10; column ++ ) {
-                for (int row = 0; row < 5; row++) {
-                    bricks[numBricks] = new DefenceBrick(row, column, shelterNumber, screenX, screenY);
-                    numBricks++;
-                }
+        profiler = simulation.getProfiler();
+        hud = new HUD(screenX, screenY, inputs, profiler);
+
+        SharedPreferences settings = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        simulation.setHighScore(settings.getInt("highScore", 0));
+        stats = new StatsStore(context);
+
+        sprites = new SpriteCache(context.getResources());
+        soundPool = new SoundPool(10, AudioManager.STREAM_MUSIC, 0);
+
+        // Sounds and sprites load in the background, the UI thread only declares them
+        assets = new AssetLoader(context.getAssets(), soundPool, sprites);
+        shootSound = assets.addSound("shoot.ogg");
+        invaderExplodeSound = assets.addSound("invaderexplode.ogg");
+        damageShelterSound = assets.addSound("damageshelter.ogg");
+        playerExplodeSound = assets.addSound("playerexplode.ogg");
+        uhSound = assets.addSound("uh.ogg");
+        ohSound = assets.addSound("oh.ogg");
+
+        PlayerShip playerShip = simulation.getPlayerShip();
+        assets.addSprite(R.drawable.playership,
+                (int) playerShip.getLength(), (int) playerShip.getHeight());
+        int invaderLength = (int) simulation.getInvader(0).getLength();
+        int invaderHeight = (int) simulation.getInvader(0).getHeight();
+        assets.addSprite(R.drawable.invader1, invaderLength, invaderHeight);
+        assets.addSprite(R.drawable.invader2, invaderLength, invaderHeight);
+        assets.start();
+
+        // An explosion of the player must never be dropped for a burst of shelter hits
+        mixer = new AudioMixer(assets.getSoundCount(), MAX_SOUNDS_PER_FRAME);
+        mixer.setSound(playerExplodeSound, 3, 0);
+        mixer.setSound(invaderExplodeSound, 2, INVADER_SOUND_COOLDOWN);
+        mixer.setSound(shootSound, 1, 0);
+        mixer.setSound(uhSound, 1, 0);
+        mixer.setSound(ohSound, 1, 0);
+        mixer.setSound(damageShelterSound, 0, SHELTER_SOUND_COOLDOWN);
+        soundPlayer = new SoundPlayer(soundPool, assets, mixer);
+
+        // The renderer may draw before the first step, so it starts with the initial state
+        snapshots = new TripleBuffer<>(new GameSnapshot(simulation),
+                new GameSnapshot(simulation), new GameSnapshot(simulation));
+        snapshots.getBack().capture(simulation, System.nanoTime(), 0, uhOrOh);
+        snapshots.publish();
+
+        renderer = createRenderer(rendererName);
+        addView(renderer.getView());
+
+        Log.i("Startup", "view created in " + (SystemClock.uptimeMillis() - createTime) + " ms");
+    }
+
+    /**
+     * Creates the renderer of the given name. Falls back to the Canvas renderer if the name is
+     * unknown or the device does not support OpenGL ES 2.0.
+     *
+     * @param rendererName  the renderer to create
+     * @return              the renderer
+     * @see                 ActivityManager#getDeviceConfigurationInfo()
+     */
+    private Renderer createRenderer(String rendererName) {
+        if (RENDERER_GLES.equals(rendererName)) {
+            ActivityManager activityManager =
+                    (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            if (activityManager.getDeviceConfigurationInfo().reqGlEsVersion >= 0x20000) {
+                return new GlesRenderer(context, simulation, snapshots, hud, assets);
             }
+            Log.w("Renderer", "OpenGL ES 2.0 not supported, falling back to canvas");
+        } else if (!RENDERER_CANVAS.equals(rendererName)) {
+            Log.w("Renderer", "unknown renderer " + rendererName + ", falling back to canvas");
         }
+        return new CanvasRenderer(context, simulation, snapshots, hud, assets);
     }
 
     /**
-     * Handles the game loop of update() and draw() thus running the game.
+     * Handles the simulation thread of the game loop. Each step first applies the player
+     * commands queued by the UI thread, in order. The simulation is then advanced in fixed ticks
+     * of NANOS_PER_TICK taken from an accumulator of real time passed, at most
+     * MAX_TICKS_PER_FRAME per step. After each step a snapshot of the simulation, stamped with
+     * the time of its last tick, is published for the render thread, which interpolates from it.
+     * The thread then sleeps until the next tick is due. Until all assets are loaded the
+     * simulation does not run and player commands are dropped.
      *
-     * @see #update()
-     * @see #draw()
+     * @see AssetLoader#isReady()
+     * @see InputQueue#drainTo(GameSimulation)
+     * @see PhaseProfiler#lap(int, long)
+     * @see GameSimulation#update()
+     * @see GameSnapshot#capture(GameSimulation, long, long, boolean)
+     * @see TripleBuffer#publish()
      * @see Runnable#run()
-     * @see System#currentTimeMillis()
-     * @see SoundPool#play(int, float, float, int, int, float)
+     * @see System#nanoTime()
+     * @see LockSupport#parkNanos(long)
+     * @see AudioMixer#post(int)
+     * @see SessionStats#recordTicks(int)
      */
     @Override
     public void run() {
 
+        long previousFrameTime = System.nanoTime();
+        long accumulator = 0;
+        long tickTime = previousFrameTime;
+
         while (playing) {
-            long startFrameTime = System.currentTimeMillis();
+            if (!assets.isReady()) {
+                while (inputs.poll() != InputQueue.NONE) {
+                    // Dropped, the game has not started yet
+                }
+                LockSupport.parkNanos(NANOS_PER_TICK);
+                previousFrameTime = System.nanoTime();
+                continue;
+            }
 
-            if(!paused){
-                update();
+            if (!firstFrameLogged && renderer.getTimer().getCount() > 0) {
+                firstFrameLogged = true;
+                Log.i("Startup", "first frame " + (SystemClock.uptimeMillis() - createTime)
+                        + " ms after view creation, assets loaded in "
+                        + assets.getLoadMillis() + " ms");
             }
 
-            draw();
+            long startFrameTime = System.nanoTime();
+            long timeThisFrame = startFrameTime - previousFrameTime;
+            previousFrameTime = startFrameTime;
+
+            long time = profiler.start();
+            inputs.drainTo(simulation);
+            profiler.lap(PhaseProfiler.INPUT, time);
 
-            timeThisFrame = System.currentTimeMillis() - startFrameTime;
-            if (timeThisFrame >= 1) {
-                fps = 1000 / timeThisFrame;
+            if(!simulation.isPaused()){
+                accumulator += timeThisFrame;
+
+                int ticks = 0;
+                while (accumulator >= NANOS_PER_TICK && ticks < MAX_TICKS_PER_FRAME
+                        && !simulation.isPaused()) {
+                    simulation.update();
+                    accumulator -= NANOS_PER_TICK;
+                    ticks++;
+                }
+
+                if (accumulator >= NANOS_PER_TICK) {
+                    accumulator = accumulator % NANOS_PER_TICK;
+                }
+
+                // While paused the last tick time stays, so the renderer shows the last state
+                if (ticks > 0) {
+                    tickTime = startFrameTime - accumulator;
+                    stats.getSession().recordTicks(ticks);
+                }
+
+                lastFrameNarrowPhaseTests = simulation.takeNarrowPhaseTests();
+            } else {
+                accumulator = 0;
             }
 
-            if(!paused) {
-                if ((startFrameTime - lastMenaceTime) > menaceInterval) {
-                    if (uhOrOh) {
-                        soundPool.play(uhID, 1, 1, 0, 0, 1);
-                    } else {
-                        soundPool.play(ohID, 1, 1, 0, 0, 1);
-                    }
+            time = profiler.start();
+            snapshots.getBack().capture(simulation, tickTime, inputs.getLastInputTime(),
+                    uhOrOh);
+            snapshots.publish();
+            profiler.lap(PhaseProfiler.SNAPSHOT, time);
+
+            if(!simulation.isPaused()) {
+                long startFrameMillis = startFrameTime / 1000000;
+                if ((startFrameMillis - lastMenaceTime) > simulation.getMenaceInterval()) {
+                    mixer.post(uhOrOh ? uhSound : ohSound);
 
-                    lastMenaceTime = System.currentTimeMillis();
+                    lastMenaceTime = startFrameMillis;
                     uhOrOh = !uhOrOh;
                 }
             }
+
+            simulationTimer.record(System.nanoTime() - startFrameTime);
+
+            LockSupport.parkNanos(NANOS_PER_TICK - accumulator);
         }
     }
 
     /**
-     * Updates the view based on the time passed, player input and game actions.
-     * Checks for bullet hits, necessary invader drop downs, victory and loss conditions.
-     * Handles the invader shooting logic.
+     * Gets the number of exact rectangle intersection tests run during the last frame.
+     * This is used to verify the effectiveness of the collision broadphase.
      *
-     * @see #prepareLevel()
-     * @see Invader#update(long)
-     * @see Invader#takeAim(float, float)
-     * @see Invader#getVisibility()
-     * @see Invader#dropDownAndReverse()
-     * @see Invader#getRect()
-     * @see PlayerShip#update(long)
-     * @see PlayerShip#getRect()
-     * @see Bullet#update(long)
-     * @see Bullet#shoot(float, float, int)
-     * @see Bullet#getStatus()
-     * @see Bullet#setInactive()
-     * @see Bullet#getImpactPointY()
-     * @see DefenceBrick#getVisibility()
-     * @see DefenceBrick#setInvisible()
-     */
-    private void update(){
-
-        boolean bumped = false;
-        boolean lost = false;
-
-        playerShip.update(fps);
-
-        // Update the invaders if visible and make them shoot
-        for(int i = 0; i < numInvaders; i++){
-            if(invaders[i].getVisibility()) {
-                invaders[i].update(fps);
-
-                if(invaders[i].takeAim(playerShip.getX(), playerShip.getLength())){
-                    if(invadersBullets[nextBullet].shoot(invaders[i].getX()
-                                    + invaders[i].getLength() / 2,
-                            invaders[i].getY(), bullet.DOWN)) {
-                        nextBullet++;
-
-                        if (nextBullet == maxInvaderBullets) {
-                            nextBullet = 0;
-                        }
-                    }
-                }
+     * @return  the narrow-phase test count of the last frame
+     */
+    int getNarrowPhaseTests() {
+        return lastFrameNarrowPhaseTests;
+    }
 
-                if (invaders[i].getX() > screenX - invaders[i].getLength()
-                        || invaders[i].getX() < 0){
-                    bumped = true;
-                }
-            }
-        }
+    /**
+     * Gets the number of objects allocated by the renderer during the last frame. Allocations
+     * are only counted in debug builds, release builds always report 0.
+     *
+     * @return  the draw allocation count of the last frame
+     * @see     Renderer#getDrawAllocations()
+     */
+    int getDrawAllocations() {
+        return renderer.getDrawAllocations();
+    }
 
-        // Update all the invaders bullets if active
-        for(int i=0; i<invadersBullets.length; i++) {
-            if(invadersBullets[i].getStatus()) {
-                invadersBullets[i].update(fps);
-            }
-        }
+    /**
+     * Gets the time spent per step on the simulation thread since the last resume.
+     *
+     * @return  the simulation threads timer
+     */
+    FrameTimer getSimulationTimer() {
+        return simulationTimer;
+    }
 
-        // Check for invaders bumping into the screen edge, drop them down if necessary
-        // Check for successful invasion
-        if(bumped) {
-            for(int i = 0; i < numInvaders; i++){
-                invaders[i].dropDownAndReverse();
-                if(invaders[i].getY() > screenY - screenY / 10){
-                    lost = true;
-                }
-            }
-            menaceInterval = menaceInterval - 80;
-        }
+    /**
+     * Gets the time spent per frame on the render thread since the last resume.
+     *
+     * @return  the render threads timer
+     * @see     Renderer#getTimer()
+     */
+    FrameTimer getRenderTimer() {
+        return renderer.getTimer();
+    }
 
-        if(lost){
-            prepareLevel();
+    /**
+     * Executed on game pause. Shuts down the simulation thread and the renderer, saves the game
+     * state, queues a write of the session stats and logs them together with the invader bullet
+     * pool statistics, the average and worst time per step of both threads, the input latency
+     * and, in debug builds, the allocations of the last drawn frame. In debug builds the replay
+     * of this game so far is written to a file in the background.
+     *
+     * @see Thread#join()
+     * @see Renderer#onPause()
+     * @see #saveState()
+     * @see StatsStore#publish()
+     * @see BulletPool#getShotsDropped()
+     * @see FrameTimer
+     * @see #getDrawAllocations()
+     * @see #writeReplay()
+     */
+    public void pause() {
+        playing = false;
+        try {
+            gameThread.join();
+        } catch (InterruptedException e) {
+            Log.e("Error:", "joining thread");
         }
-
-        if(bullet.getStatus()) {
-            bullet.update(fps);
+        renderer.onPause();
+        soundPlayer.stop();
+
+        // The simulation thread is stopped, so its state and the session stats may be read here
+        saveState();
+        stats.publish();
+        SessionStats session = stats.getSession();
+        Log.i("SessionStats", "games: " + session.getGames() + ", won: " + session.getWins()
+                + ", accuracy: " + session.getAccuracy()
+                + ", played: " + session.getPlayMillis() + " ms");
+
+        BulletPool invaderBullets = simulation.getInvaderBullets();
+        Log.i("BulletPool", "invader shots fired: " + invaderBullets.getShotsFired()
+                + ", dropped: " + invaderBullets.getShotsDropped()
+                + ", peak active: " + invaderBullets.getPeakActive());
+        Log.i("AudioMixer", "sound events coalesced: " + mixer.getCoalesced()
+                + ", plays suppressed: " + mixer.getSuppressed());
+
+        logTimer("simulation", simulationTimer);
+        logTimer(renderer.getClass().getSimpleName(), renderer.getTimer());
+        logTimer("input latency", renderer.getLatencyTimer());
+        if (inputs.getDropped() > 0) {
+            Log.i("InputQueue", "commands dropped: " + inputs.getDropped());
         }
 
-        if(bullet.getImpactPointY() < 0) {
-            bullet.setInactive();
+        if (BuildConfig.DEBUG) {
+            Log.i("draw", "allocations in last frame: " + renderer.getDrawAllocations());
         }
 
-        for(int i=0; i<invadersBullets.length; i++) {
-            if(invadersBullets[i].getImpactPointY() > screenY) {
-                invadersBullets[i].setInactive();
-            }
+        if (replay != null && replay.getTickCount() > 0) {
+            writeReplay();
         }
+    }
 
-        // Check for a successful player shot and for player victory
-        if(bullet.getStatus()) {
-            for (int i = 0; i < numInvaders; i++) {
-                if (invaders[i].getVisibility()) {
-                    if (RectF.intersects(bullet.getRect(), invaders[i].getRect())) {
-                        invaders[i].setInvisible();
-                        soundPool.play(invaderExplodeID, 1, 1, 0, 0, 1);
-                        bullet.setInactive();
-                        score = score + 10;
-
-                        if(score == numInvaders * 10){
-                            paused = true;
-                            score = 0;
-                            lives = 3;
-                            prepareLevel();
-                        }
-                    }
-                }
-            }
+    /**
+     * Writes the state of the stopped simulation into memory, to be kept by the activity in
+     * case the process is killed in the background. This takes a few microseconds, nothing is
+     * written to disk.
+     *
+     * @see GameSimulation#writeState(OutputStream)
+     * @see #getSavedState()
+     */
+    private void saveState() {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(STATE_CAPACITY);
+        try {
+            simulation.writeState(out);
+            savedState = out.toByteArray();
+            Log.i("GameState", savedState.length + " bytes saved in "
+                    + (System.nanoTime() - start) / 1000 + " us");
+        } catch (IOException e) {
+            Log.e("GameState", "failed to save", e);
         }
+    }
 
-        // Check if an alien bullet hit a shelter brick
-        for(int i = 0; i < invadersBullets.length; i++){
-            if(invadersBullets[i].getStatus()){
-                for(int j = 0; j < numBricks; j++){
-                    if(bricks[j].getVisibility()){
-                        if(RectF.intersects(invadersBullets[i].getRect(), bricks[j].getRect())){
-                            // A collision has occurred
-                            invadersBullets[i].setInactive();
-                            bricks[j].setInvisible();
-                            soundPool.play(damageShelterID, 1, 1, 0, 0, 1);
-                        }
-                    }
-                }
-            }
-        }
+    /**
+     * Gets the game state saved on the last pause.
+     *
+     * @return  the saved state, <code>null</code> if the game was not paused yet
+     * @see     #restoreState(byte[])
+     */
+    byte[] getSavedState() {
+        return savedState;
+    }
 
-        // Check if the player bullet hit a shelter brick
-        if(bullet.getStatus()){
-            for(int i = 0; i < numBricks; i++){
-                if(bricks[i].getVisibility()){
-                    if(RectF.intersects(bullet.getRect(), bricks[i].getRect())){
-                        // A collision has occurred
-                        bullet.setInactive();
-                        bricks[i].setInvisible();
-                        soundPool.play(damageShelterID, 1, 1, 0, 0, 1);
-                    }
-                }
-            }
+    /**
+     * Continues a game from a state saved by an earlier view, e.g. after the process was killed
+     * in the background. Must be called before the first resume. The game comes back paused. A
+     * state saved with another screen size, i.e. before a rotation, is dropped and the new game
+     * stays.
+     *
+     * @param state the saved state
+     * @see         GameSimulation#readState(InputStream)
+     * @see         GameSnapshot#capture(GameSimulation, long, long, boolean)
+     */
+    void restoreState(byte[] state) {
+        long start = System.nanoTime();
+
+        // The replay records this views game from its first tick, a restored game is another one
+        simulation.setReplay(null);
+        try {
+            simulation.readState(new ByteArrayInputStream(state));
+            simulation.setPaused(true);
+            Log.i("GameState", state.length + " bytes restored in "
+                    + (System.nanoTime() - start) / 1000 + " us");
+        } catch (IOException e) {
+            Log.w("GameState", "saved state dropped: " + e.getMessage());
         }
 
-        // check if an invader bullet hit the player ship and resulting game loss
-        for(int i = 0; i < invadersBullets.length; i++){
-            if(invadersBullets[i].getStatus()){
-                if(RectF.intersects(playerShip.getRect(), invadersBullets[i].getRect())){
-                    invadersBullets[i].setInactive();
-                    lives --;
-                    soundPool.play(playerExplodeID, 1, 1, 0, 0, 1);
-
-                    if(lives == 0){
-                        if(score > highScore) {
-                            SharedPreferences settings = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-                            SharedPreferences.Editor editor = settings.edit();
-                            editor.putInt("highScore", score);
-                            editor.commit();
-                            highScore = score;
-                        }
+        snapshots.getBack().capture(simulation, System.nanoTime(), 0, uhOrOh);
+        snapshots.publish();
+    }
 
-                        paused = true;
-                        lives = 3;
-                        score = 0;
-                        prepareLevel();
-                    }
-                }
-            }
+    /**
+     * Gets a file in the apps external files directory, or in its internal files directory if
+     * there is no external storage.
+     *
+     * @param name  the files name
+     * @return      the file
+     * @see         Context#getExternalFilesDir(String)
+     * @see         Context#getFilesDir()
+     */
+    private File getOutputFile(String name) {
+        File directory = context.getExternalFilesDir(null);
+        if (directory == null) {
+            directory = context.getFilesDir();
         }
+        return new File(directory, name);
     }
 
     /**
-     * Draws all game objects to the drawing surface.
+     * Writes the replay of this game so far to REPLAY_FILE, replacing the one written on the
+     * last pause or by an earlier view. The replay is encoded in memory while the simulation
+     * thread is stopped, which takes well under a millisecond for the largest replay, and the
+     * file is written on the DiskWriter thread. The file can be run again with the headless
+     * replay runner of the core module.
      *
-     * @see RectF
-     * @see DefenceBrick#getVisibility()
-     * @see Invader#getVisibility()
-     * @see Bullet#getStatus()
-     * @see Surface#isValid()
-     * @see SurfaceHolder#lockCanvas()
-     * @see SurfaceHolder#unlockCanvasAndPost(Canvas)
-     * @see Paint#setColor(int)
-     * @see Canvas#drawColor(int)
-     * @see Canvas#drawBitmap(Bitmap, float, float, Paint)
-     * @see Canvas#drawRect(Rect, Paint)
-     * @see Canvas#drawText(String, float, float, Paint)
-     * @see Canvas#drawRoundRect(RectF, float, float, Paint)
-     */
-    private void draw(){
-        if (ourHolder.getSurface().isValid()) {
-            canvas = ourHolder.lockCanvas();
-
-            canvas.drawColor(Color.argb(255, 0, 0, 0));
-
-            paint.setColor(Color.argb(255,  255, 255, 255));
-
-
-            // Draw the player ship
-            canvas.drawBitmap(
-                    playerShip.getBitmap(),
-                    playerShip.getX(),
-                    screenY-playerShip.getHeight(),
-                    paint);
-
-            // Draw the invaders
-            for(int i = 0; i < numInvaders; i++) {
-                if(invaders[i].getVisibility()) {
-                    if(uhOrOh) {
-                        canvas.drawBitmap(
-                                invaders[i].getBitmap(),
-                                invaders[i].getX(),
-                                invaders[i].getY(),
-                                paint);
-                    } else {
-                        canvas.drawBitmap(
-                                invaders[i].getBitmap2(),
-                                invaders[i].getX(),
-                                invaders[i].getY(),
-                                paint);
-                    }
-                }
-            }
-
-            // Draw the bricks if visible
-            for(int i = 0; i < numBricks; i++){
-                if(bricks[i].getVisibility()) {
-                    canvas.drawRect(bricks[i].getRect(), paint);
-                }
-            }
-
-            // Draw the players bullet if active
-            if(bullet.getStatus()) {
-                canvas.drawRect(bullet.getRect(), paint);
-            }
+     * @see Replay#writeTo(OutputStream)
+     * @see #writeFile(String, byte[], String)
+     */
+    private void writeReplay() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            replay.writeTo(out);
+        } catch (IOException e) {
+            Log.e("Replay", "failed to encode", e);
+            return;
+        }
+        if (replay.isFull()) {
+            Log.i("Replay", "recording stopped after " + replay.getTickCount() + " ticks");
+        }
+        writeFile(REPLAY_FILE, out.toByteArray(), "Replay");
+    }
 
-            // Draw the invaders bullets if active
-            for(int i=0; i<invadersBullets.length; i++) {
-                if(invadersBullets[i].getStatus()) {
-                    canvas.drawRect(invadersBullets[i].getRect(), paint);
+    /**
+     * Queues a write of a file in the output directory on the DiskWriter thread, replacing the
+     * file if it exists.
+     *
+     * @param name  the files name
+     * @param bytes the files content, must not be changed afterwards
+     * @param tag   the log tag to report the write with
+     * @see         DiskWriter#execute(Runnable)
+     * @see         #getOutputFile(String)
+     */
+    private void writeFile(final String name, final byte[] bytes, final String tag) {
+        DiskWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Looking up the directory may create it, so this is part of the write
+                File file = getOutputFile(name);
+                OutputStream out = null;
+                try {
+                    out = new FileOutputStream(file);
+                    out.write(bytes);
+                    Log.i(tag, bytes.length + " bytes written to " + file);
+                } catch (IOException e) {
+                    Log.e(tag, "failed to write " + file, e);
+                } finally {
+                    if (out != null) {
+                        try {
+                            out.close();
+                        } catch (IOException e) {
+                            Log.e(tag, "failed to close " + file, e);
+                        }
+                    }
                 }
             }
-
-            // Draw the score, remaining lives and high score
-            paint.setColor(Color.argb(255,  249, 129, 0));
-            paint.setTextSize(90);
-            canvas.drawText(
-                    "Score: " + score + "   Lives: " + lives + "   High Score: " + highScore,
-                    10,
-                    90,
-                    paint);
-
-            // Draw buttons
-            paint.setColor(Color.argb(80, 255, 255, 255));
-
-            for (Rect rect : hud.currentButtonList) {
-                RectF rf = new RectF(rect.left, rect.top, rect.right, rect.bottom);
-                canvas.drawRoundRect(rf, 15f, 15f, paint);
-            }
-
-            // Draw button Text
-            paint.setColor(Color.argb(255,  249, 129, 0));
-            paint.setTextSize(hud.buttonWidth/3);
-            canvas.drawText(
-                    "L",
-                    hud.left.left+hud.buttonWidth*12/32,
-                    hud.left.top+hud.buttonHeight*2/3,
-                    paint);
-            canvas.drawText(
-                    "R",
-                    hud.right.left+hud.buttonWidth*12/32,
-                    hud.right.top+hud.buttonHeight*2/3,
-                    paint);
-            canvas.drawText(
-                    "FIRE!",
-                    hud.shoot.left+hud.buttonWidth/8,
-                    hud.shoot.top+hud.buttonHeight*2/3,
-                    paint);
-            if(paused) {
-                canvas.drawText(
-                        "Play",
-                        hud.pause.left+hud.buttonWidth*3/16,
-                        hud.pause.top+hud.buttonHeight*2/3,
-                        paint);
-            } else {
-                canvas.drawText(
-                        "Pause",
-                        hud.pause.left+hud.buttonWidth/32,
-                        hud.pause.top+hud.buttonHeight*2/3,
-                        paint);
-            }
-
-            ourHolder.unlockCanvasAndPost(canvas);
-        }
+        });
     }
 
     /**
-     * Executed on game pause. Shuts down the thread.
+     * Writes the profilers histograms to PROFILE_FILE, replacing the one written before. The
+     * histograms are formatted right away, so a later reset does not change them, and the file
+     * is written on the DiskWriter thread.
      *
-     * @see Thread#join()
+     * @see PhaseProfiler#writeTo(Writer)
+     * @see #writeFile(String, byte[], String)
      */
-    public void pause() {
-        playing = false;
+    private void writeProfile() {
+        StringWriter text = new StringWriter();
         try {
-            gameThread.join();
-        } catch (InterruptedException e) {
-            Log.e("Error:", "joining thread");
+            profiler.writeTo(text);
+        } catch (IOException e) {
+            Log.e("PhaseProfiler", "failed to format", e);
+            return;
         }
+        writeFile(PROFILE_FILE, text.toString().getBytes(), "PhaseProfiler");
+    }
 
+    /**
+     * Logs the step count and the average and worst step time of a thread.
+     *
+     * @param name  the threads name
+     * @param timer the threads timer
+     */
+    private static void logTimer(String name, FrameTimer timer) {
+        if (timer.getCount() > 0) {
+            Log.i("FrameTimer", name + ": " + timer.getCount() + " frames"
+                    + ", average " + timer.getAverageNanos() / 1000 + " us"
+                    + ", worst " + timer.getMaxNanos() / 1000 + " us");
+        }
     }
 
     /**
-     * Executed on game start or resume. Starts the thread.
+     * Executed on game start or resume. Resumes the renderer and starts the sound player and
+     * the simulation thread.
      *
+     * @see Renderer#onResume()
+     * @see SoundPlayer#start()
      * @see Thread#start()
      */
     public void resume() {
+        simulationTimer.reset();
+        profiler.reset();
+
+        renderer.onResume();
+        soundPlayer.start();
         playing = true;
         gameThread = new Thread(this);
         gameThread.start();
     }
 
-    // The SurfaceView class implements onTouchListener
-    // So we can override this method and detect screen touches.
+    /**
+     * Counts the shot and posts the shooting sound.
+     *
+     * @see GameListener#onPlayerShot()
+     * @see SessionStats#recordShot()
+     */
+    @Override
+    public void onPlayerShot() {
+        stats.getSession().recordShot();
+        mixer.post(shootSound);
+    }
 
     /**
-     * OnTouchListener inherited from SurfaceView. Forwards screen touches to the HUD.
+     * Counts the hit and posts the invader explosion sound.
+     *
+     * @see GameListener#onInvaderDestroyed()
+     * @see SessionStats#recordHit()
+     */
+    @Override
+    public void onInvaderDestroyed() {
+        stats.getSession().recordHit();
+        mixer.post(invaderExplodeSound);
+    }
+
+    /**
+     * Posts the shelter damage sound.
+     *
+     * @see GameListener#onShelterDamaged()
+     */
+    @Override
+    public void onShelterDamaged() {
+        mixer.post(damageShelterSound);
+    }
+
+    /**
+     * Posts the player explosion sound.
+     *
+     * @see GameListener#onPlayerHit()
+     */
+    @Override
+    public void onPlayerHit() {
+        mixer.post(playerExplodeSound);
+    }
+
+    /**
+     * Logs a new high score. It is stored with the stats of the game, published at its end.
+     *
+     * @param highScore the new high score
+     * @see             GameListener#onHighScore(int)
+     * @see             #onGameOver(int, boolean)
+     */
+    @Override
+    public void onHighScore(int highScore) {
+        Log.i("SessionStats", "new high score: " + highScore);
+    }
+
+    /**
+     * Records the end of a game and queues a write of the session stats. The write runs on the
+     * stores background thread, the simulation thread only copies the stats.
+     *
+     * @param score the games final score
+     * @param won   <code>true</code> if the wave was cleared
+     *              <code>false</code> if the player lost
+     * @see         GameListener#onGameOver(int, boolean)
+     * @see         SessionStats#recordGame(int, boolean)
+     * @see         StatsStore#publish()
+     */
+    @Override
+    public void onGameOver(int score, boolean won) {
+        stats.getSession().recordGame(score, won);
+        stats.publish();
+    }
+
+    /**
+     * Forwards screen touches to the HUD. The renderers view does not handle touches, so they
+     * end up here. If a touch hid the profiler overlay, the profile recorded while it was shown
+     * is written to a file.
      *
      * @param motionEvent   the touch event, represents player input
      * @return              <code>true</code> always
      * @see                 MotionEvent
-     * @see                 SurfaceView#onTouchEvent(MotionEvent)
+     * @see                 FrameLayout#onTouchEvent(MotionEvent)
      * @see                 HUD#handleInput(MotionEvent, int)
+     * @see                 #writeProfile()
      */
     @Override
     public boolean onTouchEvent(MotionEvent motionEvent) {
+        boolean profiling = profiler.isEnabled();
         for(int i=0; i<motionEvent.getPointerCount(); i++) {
             hud.handleInput(motionEvent, i);
         }
-        return true;
-    }
-
-    /**
-     * Holds all objects to recognize and handle player input.
-     *
-     * @version %I%, %G%
-     */
-    class HUD {
-
-        Rect left;
-        Rect right;
-        Rect shoot;
-        Rect pause;
-
-        int buttonWidth;
-        int buttonHeight;
-        int buttonPadding;
-
-        public ArrayList<Rect> currentButtonList = new ArrayList<>();
-
-        /**
-         * Constructs this HUD. Sets button sizes appropriately.
-         *
-         * @param screenWidth   the devices screen width
-         * @param screenHeight  the devices screen height
-         * @see                 Rect
-         * @see                 ArrayList#add(Object)
-         */
-        HUD(int screenWidth, int screenHeight) {
-            buttonWidth = screenWidth / 8;
-            buttonHeight = screenHeight / 7;
-            buttonPadding = screenWidth / 80;
-
-            left = new Rect(buttonPadding,
-                    screenHeight - buttonHeight - buttonPadding,
-                    buttonWidth,
-                    screenHeight - buttonPadding);
-
-            right = new Rect(buttonWidth + buttonPadding,
-                    screenHeight - buttonHeight - buttonPadding,
-                    buttonWidth + buttonPadding + buttonWidth,
-                    screenHeight - buttonPadding);
-
-            shoot = new Rect(screenWidth - buttonWidth - buttonPadding,
-                    screenHeight - buttonHeight - buttonPadding,
-                    screenWidth - buttonPadding,
-                    screenHeight - buttonPadding);
-
-            pause = new Rect(screenWidth - buttonPadding - buttonWidth,
-                    buttonPadding,
-                    screenWidth - buttonPadding,
-                    buttonPadding + buttonHeight);
-
-            currentButtonList.add(left);
-            currentButtonList.add(right);
-            currentButtonList.add(shoot);
-            currentButtonList.add(pause);
-        }
-
-        /**
-         * Handles screen touches and player input.
-         * Starts and pauses the game, moves the player ship and fires bullets.
-         *
-         * @param motionEvent   the touch event, represents player input
-         * @param index         the touch event pointer index to handle multiple
-         *                      simultaneous screen touches
-         * @see                 MotionEvent
-         * @see                 MotionEvent#getX()
-         * @see                 MotionEvent#getY()
-         * @see                 SurfaceView#onTouchEvent(MotionEvent)
-         * @see                 Rect#contains(int, int)
-         * @see                 HUD#handleInput(MotionEvent, int)
-         * @see                 PlayerShip#setMovementState(int)
-         * @see                 Bullet#shoot(float, float, int)
-         * @see                 SoundPool#play(int, float, float, int, int, float)
-         */
-        public void handleInput(MotionEvent motionEvent, int index) {
-
-            int x = (int) motionEvent.getX(index);
-            int y = (int) motionEvent.getY(index);
-
-            switch (motionEvent.getAction() & MotionEvent.ACTION_MASK) {
-                case MotionEvent.ACTION_DOWN:
-                    if (right.contains(x, y)) {
-                        playerShip.setMovementState(playerShip.RIGHT);
-                    } else if (left.contains(x, y)) {
-                        playerShip.setMovementState(playerShip.LEFT);
-                    } else if (shoot.contains(x, y)) {
-                        if(bullet.shoot(
-                                playerShip.getX()+playerShip.getLength()/2,
-                                screenY-playerShip.getHeight(),
-                                bullet.UP)) {
-                            soundPool.play(
-                                    shootID,
-                                    1,
-                                    1,
-                                    0,
-                                    0,
-                                    1);
-                        }
-                    } else if(pause.contains(x, y)) {
-                        paused = !paused;
-                    }
-                    break;
-
-                case MotionEvent.ACTION_UP:
-                    if (right.contains(x, y) || left.contains(x, y)){
-                        playerShip.setMovementState(playerShip.STOPPED);
-                    }
-                    break;
-
-                case MotionEvent.ACTION_POINTER_DOWN:
-                    if (shoot.contains(x, y)) {
-                        if(bullet.shoot(
-                                playerShip.getX()+playerShip.getLength()/2,
-                                screenY,
-                                bullet.UP)) {
-                            soundPool.play(
-                                    shootID,
-                                    1,
-                                    1,
-                                    0,
-                                    0,
-                                    1);
-                        }
-                    } else if(pause.contains(x, y)) {
-                        paused = !paused;
-                    }
-                    break;
-            }
+        if (profiling && !profiler.isEnabled()
+                && profiler.getHistogram(PhaseProfiler.FRAME).getCount() > 0) {
+            writeProfile();
         }
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.graphics.RectF;
+
+/**
+ * Collects textured quads of one frame as a flat vertex array, ready to be drawn with a single
+ * glDrawArrays() call. Each quad is two triangles of six vertices, each vertex is the screen
+ * position x, y followed by the texture coordinates u, v.
+ *
+ * @version %I%, %G%
+ * @see     GlesRenderer
+ */
+public class SpriteBatch {
+
+    public static final int FLOATS_PER_VERTEX = 4;
+    public static final int VERTICES_PER_QUAD = 6;
+    public static final int FLOATS_PER_QUAD = FLOATS_PER_VERTEX * VERTICES_PER_QUAD;
+
+    private float[] vertices;
+    private int quads;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param initialQuads  the number of quads to reserve space for
+     */
+    public SpriteBatch(int initialQuads) {
+        vertices = new float[Math.max(1, initialQuads) * FLOATS_PER_QUAD];
+    }
+
+    /**
+     * Removes all quads.
+     */
+    public void clear() {
+        quads = 0;
+    }
+
+    /**
+     * Adds a quad showing a region of the texture.
+     *
+     * @param left      the quads left edge
+     * @param top       the quads top edge
+     * @param right     the quads right edge
+     * @param bottom    the quads bottom edge
+     * @param region    the texture coordinates to show, between 0 and 1
+     */
+    public void add(float left, float top, float right, float bottom, RectF region) {
+        if ((quads + 1) * FLOATS_PER_QUAD > vertices.length) {
+            float[] grown = new float[vertices.length * 2];
+            System.arraycopy(vertices, 0, grown, 0, quads * FLOATS_PER_QUAD);
+            vertices = grown;
+        }
+
+        int i = quads * FLOATS_PER_QUAD;
+        i = put(i, left, top, region.left, region.top);
+        i = put(i, left, bottom, region.left, region.bottom);
+        i = put(i, right, top, region.right, region.top);
+        i = put(i, right, top, region.right, region.top);
+        i = put(i, left, bottom, region.left, region.bottom);
+        put(i, right, bottom, region.right, region.bottom);
+        quads++;
+    }
+
+    /**
+     * Gets the vertex array. Only the first getQuadCount() * FLOATS_PER_QUAD values are valid.
+     *
+     * @return  the vertices
+     */
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Gets the number of quads added since the last clear().
+     *
+     * @return  the quad count
+     */
+    public int getQuadCount() {
+        return quads;
+    }
+
+    private int put(int i, float x, float y, float u, float v) {
+        vertices[i] = x;
+        vertices[i + 1] = y;
+        vertices[i + 2] = u;
+        vertices[i + 3] = v;
+        return i + FLOATS_PER_VERTEX;
+    }
+}
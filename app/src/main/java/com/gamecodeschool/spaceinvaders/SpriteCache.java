@@ -0,0 +1,115 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * Decodes and scales sprite bitmaps once and shares them between all game objects.
+ * Bitmaps are keyed by their drawable resource id and target size, so requesting the same
+ * sprite again, e.g. on a level restart, returns the already scaled bitmap. Different sprites may
+ * be decoded on several threads at once, only the lookup and the insert are locked.
+ *
+ * @version %I%, %G%
+ */
+public class SpriteCache {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final Resources resources;
+
+    private int[] resourceIds = new int[INITIAL_CAPACITY];
+    private int[] widths = new int[INITIAL_CAPACITY];
+    private int[] heights = new int[INITIAL_CAPACITY];
+    private Bitmap[] bitmaps = new Bitmap[INITIAL_CAPACITY];
+    private int numSprites;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param resources the resources to decode the sprites from
+     */
+    public SpriteCache(Resources resources) {
+        this.resources = resources;
+    }
+
+    /**
+     * Gets a sprite scaled to the given size. The sprite is decoded and scaled on the first
+     * request only. Decoding runs outside the lock; if two threads request the same new sprite
+     * at once, the bitmap decoded first is kept.
+     *
+     * @param resourceId    the sprites drawable resource id
+     * @param width         the sprites target size in x-direction
+     * @param height        the sprites target size in y-direction
+     * @return              the scaled bitmap
+     * @see                 BitmapFactory#decodeResource(Resources, int)
+     * @see                 Bitmap#createScaledBitmap(Bitmap, int, int, boolean)
+     */
+    public Bitmap get(int resourceId, int width, int height) {
+        Bitmap cached = find(resourceId, width, height);
+        if (cached != null) {
+            return cached;
+        }
+
+        Bitmap decoded = BitmapFactory.decodeResource(resources, resourceId);
+        Bitmap scaled = Bitmap.createScaledBitmap(decoded, width, height, false);
+        if (scaled != decoded) {
+            decoded.recycle();
+        }
+
+        synchronized (this) {
+            cached = find(resourceId, width, height);
+            if (cached != null) {
+                scaled.recycle();
+                return cached;
+            }
+
+            if (numSprites == bitmaps.length) {
+                grow();
+            }
+            resourceIds[numSprites] = resourceId;
+            widths[numSprites] = width;
+            heights[numSprites] = height;
+            bitmaps[numSprites] = scaled;
+            numSprites++;
+        }
+
+        return scaled;
+    }
+
+    /**
+     * Looks up a cached sprite.
+     *
+     * @param resourceId    the sprites drawable resource id
+     * @param width         the sprites size in x-direction
+     * @param height        the sprites size in y-direction
+     * @return              the scaled bitmap, <code>null</code> if not cached yet
+     */
+    private synchronized Bitmap find(int resourceId, int width, int height) {
+        for (int i = 0; i < numSprites; i++) {
+            if (resourceIds[i] == resourceId && widths[i] == width && heights[i] == height) {
+                return bitmaps[i];
+            }
+        }
+        return null;
+    }
+
+    private void grow() {
+        int capacity = bitmaps.length * 2;
+
+        int[] newResourceIds = new int[capacity];
+        int[] newWidths = new int[capacity];
+        int[] newHeights = new int[capacity];
+        Bitmap[] newBitmaps = new Bitmap[capacity];
+
+        System.arraycopy(resourceIds, 0, newResourceIds, 0, numSprites);
+        System.arraycopy(widths, 0, newWidths, 0, numSprites);
+        System.arraycopy(heights, 0, newHeights, 0, numSprites);
+        System.arraycopy(bitmaps, 0, newBitmaps, 0, numSprites);
+
+        resourceIds = newResourceIds;
+        widths = newWidths;
+        heights = newHeights;
+        bitmaps = newBitmaps;
+    }
+}
@@ -0,0 +1,172 @@
+package com.gamecodeschool.spaceinvaders;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.gamecodeschool.spaceinvaders.core.SessionStats;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Persists the high score and the session stats behind the game. The simulation thread records
+ * into the stats of this session in memory only; publish() copies them to a pending buffer and
+ * hands the write to a single background thread. All publishes made while a write is queued are
+ * merged into that one write. The writer adds the session to the stats stored by earlier
+ * sessions, writes the sum to a small binary file and updates the high score in the shared
+ * preferences with apply(). No disk I/O ever happens on the simulation thread.
+ *
+ * The writes run on the shared DiskWriter thread, so the store of a recreated view reads the
+ * stored stats only after the writes of the store before it have finished.
+ *
+ * @version %I%, %G%
+ * @see     SessionStats
+ * @see     DiskWriter
+ * @see     SharedPreferences.Editor#apply()
+ */
+public class StatsStore {
+
+    private static final String FILE_NAME = "stats.bin";
+
+    private final Context context;
+
+    // Recorded by the simulation thread only
+    private final SessionStats session = new SessionStats();
+
+    // The latest published session stats, guarded by this
+    private final SessionStats pending = new SessionStats();
+    private boolean writeQueued;
+
+    // Used by the writer thread only
+    private final SessionStats writing = new SessionStats();
+    private final SessionStats total = new SessionStats();
+    private SessionStats stored;
+
+    private final Runnable write = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (StatsStore.this) {
+                writing.copyFrom(pending);
+                writeQueued = false;
+            }
+            write();
+        }
+    };
+
+    /**
+     * Creates a store. Nothing is read until the first write.
+     *
+     * @param context   the context of the files directory and the shared preferences
+     */
+    public StatsStore(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Gets the stats of this session to record into. They must only be used by the simulation
+     * thread.
+     *
+     * @return  the session stats
+     */
+    public SessionStats getSession() {
+        return session;
+    }
+
+    /**
+     * Queues a write of the session stats as recorded so far. Only copies the stats, so this is
+     * safe to call on the simulation thread. Must be called on the simulation thread or while
+     * it is stopped.
+     *
+     * @see DiskWriter#execute(Runnable)
+     */
+    public void publish() {
+        boolean queue;
+        synchronized (this) {
+            pending.copyFrom(session);
+            queue = !writeQueued;
+            writeQueued = true;
+        }
+        if (queue) {
+            DiskWriter.execute(write);
+        }
+    }
+
+    /**
+     * Writes the stored stats plus the session stats being written to the stats file and the
+     * high score to the shared preferences. The file is written next to the old one and renamed
+     * over it, so a write cut off by the process dying leaves the old stats in place.
+     *
+     * @see SessionStats#writeTo(OutputStream)
+     * @see File#renameTo(File)
+     */
+    private void write() {
+        File file = new File(context.getFilesDir(), FILE_NAME);
+        if (stored == null) {
+            stored = read(file);
+        }
+        total.copyFrom(stored);
+        total.add(writing);
+
+        File temp = new File(context.getFilesDir(), FILE_NAME + ".tmp");
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(temp);
+            total.writeTo(out);
+            out.close();
+            out = null;
+            if (!temp.renameTo(file)) {
+                Log.e("StatsStore", "failed to replace " + file);
+            }
+        } catch (IOException e) {
+            Log.e("StatsStore", "failed to write " + temp, e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    Log.e("StatsStore", "failed to close " + temp, e);
+                }
+            }
+        }
+
+        SharedPreferences settings = context.getSharedPreferences(
+                SpaceInvadersView.PREFS_NAME, Context.MODE_PRIVATE);
+        if (total.getHighScore() > settings.getInt("highScore", 0)) {
+            settings.edit().putInt("highScore", total.getHighScore()).apply();
+        }
+    }
+
+    /**
+     * Reads the stats stored by earlier sessions.
+     *
+     * @param file  the stats file
+     * @return      the stored stats, empty if there is no readable file
+     * @see         SessionStats#readFrom(InputStream)
+     */
+    private static SessionStats read(File file) {
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            return SessionStats.readFrom(in);
+        } catch (FileNotFoundException e) {
+            return new SessionStats();
+        } catch (IOException e) {
+            Log.e("StatsStore", "failed to read " + file + ", starting over", e);
+            return new SessionStats();
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    Log.e("StatsStore", "failed to close " + file, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.gamecodeschool.spaceinvaders;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HudTextTest {
+
+    private static String text(HudText hudText) {
+        return new String(hudText.getChars(), 0, hudText.getLength());
+    }
+
+    @Test
+    public void formatsScoreLine() {
+        HudText hudText = new HudText();
+
+        assertTrue(hudText.set(120, 3, 4500));
+        assertEquals("Score: 120   Lives: 3   High Score: 4500", text(hudText));
+
+        assertTrue(hudText.set(0, -1, Integer.MIN_VALUE));
+        assertEquals("Score: 0   Lives: -1   High Score: " + Integer.MIN_VALUE, text(hudText));
+    }
+
+    @Test
+    public void rebuildsOnlyOnChange() {
+        HudText hudText = new HudText();
+        hudText.set(10, 3, 10);
+        char[] chars = hudText.getChars();
+
+        assertFalse(hudText.set(10, 3, 10));
+        assertTrue(hudText.set(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+        assertSame(chars, hudText.getChars());
+    }
+}
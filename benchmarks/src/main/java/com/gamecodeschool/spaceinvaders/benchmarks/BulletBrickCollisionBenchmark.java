@@ -0,0 +1,74 @@
+package com.gamecodeschool.spaceinvaders.benchmarks;
+
+import com.gamecodeschool.spaceinvaders.core.GameSimulation;
+import com.gamecodeschool.spaceinvaders.core.ShelterField;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the invader bullet versus shelter brick pass of a single tick. The bullets are spread
+ * over the lower half of the screen, so part of them are inside the shelter band, and swept down
+ * by one tick of movement. The shelters are restored before every pass to keep the hit rate
+ * constant.
+ *
+ * @version %I%, %G%
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BulletBrickCollisionBenchmark {
+
+    @Param({"200", "5000", "50000"})
+    int bullets;
+
+    private ShelterField shelters;
+    private float[] x;
+    private float[] y;
+    private float bulletHeight;
+    private float step;
+
+    @Setup
+    public void setUp() {
+        int screenY = Waves.MIN_SCREEN_Y;
+        shelters = new ShelterField(Waves.SCREEN_X, screenY);
+        bulletHeight = screenY / 20;
+        step = 350f / GameSimulation.TICKS_PER_SECOND;
+
+        Random random = new Random(42);
+        x = new float[bullets];
+        y = new float[bullets];
+        for (int i = 0; i < bullets; i++) {
+            x[i] = random.nextFloat() * Waves.SCREEN_X;
+            y[i] = screenY / 2 + random.nextFloat() * screenY / 2;
+        }
+    }
+
+    @Benchmark
+    public int collide() {
+        shelters.reset();
+
+        int hits = 0;
+        for (int i = 0; i < bullets; i++) {
+            if (shelters.sweep(x[i], y[i] - step, x[i], y[i], 1, bulletHeight, 1) > 0) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,65 @@
+package com.gamecodeschool.spaceinvaders.benchmarks;
+
+import com.gamecodeschool.spaceinvaders.core.GameSimulation;
+import com.gamecodeschool.spaceinvaders.core.GameSnapshot;
+import com.gamecodeschool.spaceinvaders.core.WaveSchedule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the ticks of the endless mode on a phone sized screen, each followed by the snapshot
+ * capture the renderer needs. The first wave has 18 invaders in one formation, the tenth 1152
+ * invaders in four formations.
+ *
+ * @version %I%, %G%
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EndlessWaveBenchmark {
+
+    @Param({"0", "4", "9"})
+    int wave;
+
+    private GameSimulation simulation;
+    private GameSnapshot snapshot;
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        simulation = new GameSimulation(Waves.SCREEN_X, Waves.MIN_SCREEN_Y,
+                WaveSchedule.endless(), WaveSchedule.ENDLESS_MAX_INVADER_BULLETS, 42);
+        simulation.setWave(wave);
+        snapshot = new GameSnapshot(simulation);
+    }
+
+    @Benchmark
+    public int tickAndCapture() {
+        if (simulation.isPaused()) {
+            // A lost game starts over at the first wave, so go back to the measured one
+            simulation.setWave(wave);
+            simulation.setPaused(false);
+        }
+        if (++tick % 30 == 0) {
+            simulation.firePlayerBullet();
+        }
+        simulation.update();
+        snapshot.capture(simulation, 0, 0, false);
+        return simulation.getScore();
+    }
+}
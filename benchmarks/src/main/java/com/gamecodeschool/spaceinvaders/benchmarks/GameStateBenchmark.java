@@ -0,0 +1,72 @@
+package com.gamecodeschool.spaceinvaders.benchmarks;
+
+import com.gamecodeschool.spaceinvaders.core.GameSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving and restoring the complete game state, as done when the app is sent to the
+ * background and recreated after its process was killed. The game is saved mid-wave, with
+ * bullets in flight and invaders and bricks destroyed.
+ *
+ * @version %I%, %G%
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameStateBenchmark {
+
+    @Param({"30", "1000", "10000"})
+    int invaders;
+
+    private GameSimulation simulation;
+    private GameSimulation restored;
+    private byte[] state;
+
+    @Setup
+    public void setUp() throws IOException {
+        simulation = new GameSimulation(Waves.SCREEN_X, Waves.screenY(invaders),
+                Waves.rows(invaders), Waves.columns(invaders), 200);
+        for (int tick = 0; tick < 2000; tick++) {
+            simulation.setPaused(false);
+            if (tick % 30 == 0) {
+                simulation.firePlayerBullet();
+            }
+            simulation.update();
+        }
+        restored = new GameSimulation(Waves.SCREEN_X, Waves.screenY(invaders),
+                Waves.rows(invaders), Waves.columns(invaders), 200);
+        state = save();
+    }
+
+    @Benchmark
+    public byte[] save() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        simulation.writeState(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public int restore() throws IOException {
+        restored.readState(new ByteArrayInputStream(state));
+        return restored.getScore();
+    }
+}
@@ -0,0 +1,63 @@
+package com.gamecodeschool.spaceinvaders.benchmarks;
+
+import com.gamecodeschool.spaceinvaders.core.Formation;
+import com.gamecodeschool.spaceinvaders.core.GameSimulation;
+import com.gamecodeschool.spaceinvaders.core.Invader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the invader movement of a single tick, the formation move and edge check, and the
+ * drop down and reverse run when the wave bumps into the screen edge. Both only touch the
+ * formation, so their cost does not depend on the wave size.
+ *
+ * @version %I%, %G%
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InvaderMovementBenchmark {
+
+    @Param({"30", "1000", "10000"})
+    int invaders;
+
+    private Formation formation;
+
+    @Setup
+    public void setUp() {
+        int screenY = Waves.screenY(invaders);
+        int columns = Waves.columns(invaders);
+
+        formation = new Formation(Waves.rows(invaders), columns, Waves.SCREEN_X, screenY);
+        for (int i = 0; i < invaders; i++) {
+            new Invader(formation).spawn(i / columns, i % columns);
+        }
+        formation.reset(0, 0, Formation.INITIAL_SPEED);
+    }
+
+    @Benchmark
+    public boolean move() {
+        formation.move(GameSimulation.TICKS_PER_SECOND);
+        return formation.isOutside(0, Waves.SCREEN_X);
+    }
+
+    @Benchmark
+    public void dropDownAndReverse() {
+        formation.dropDownAndReverse(1.0f);
+    }
+}
@@ -0,0 +1,57 @@
+package com.gamecodeschool.spaceinvaders.benchmarks;
+
+import com.gamecodeschool.spaceinvaders.core.GameSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete simulation ticks, the equivalent of the former SpaceInvadersView.update().
+ * The player keeps firing, so bullet hits and wave restarts are part of the measurement.
+ *
+ * @version %I%, %G%
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SimulationTickBenchmark {
+
+    @Param({"30", "1000", "10000"})
+    int invaders;
+
+    @Param({"200", "50000"})
+    int bullets;
+
+    private GameSimulation simulation;
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        simulation = new GameSimulation(Waves.SCREEN_X, Waves.screenY(invaders),
+                Waves.rows(invaders), Waves.columns(invaders), bullets);
+    }
+
+    @Benchmark
+    public int tick() {
+        simulation.setPaused(false);
+        if (++tick % 30 == 0) {
+            simulation.firePlayerBullet();
+        }
+        simulation.update();
+        return simulation.getScore();
+    }
+}
@@ -0,0 +1,73 @@
+package com.gamecodeschool.spaceinvaders.benchmarks;
+
+import com.gamecodeschool.spaceinvaders.core.FireScheduler;
+import com.gamecodeschool.spaceinvaders.core.Formation;
+import com.gamecodeschool.spaceinvaders.core.Invader;
+import com.gamecodeschool.spaceinvaders.core.XorShiftRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the invader fire decision of a single tick, i.e. one Invader.isAbove() test and one
+ * FireScheduler trial per visible invader.
+ *
+ * @version %I%, %G%
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TakeAimBenchmark {
+
+    @Param({"30", "1000", "10000"})
+    int invaders;
+
+    private Invader[] views;
+    private FireScheduler scheduler;
+    private float playerX;
+    private float playerLength;
+
+    @Setup
+    public void setUp() {
+        int screenY = Waves.screenY(invaders);
+        int columns = Waves.columns(invaders);
+
+        Formation formation = new Formation(Waves.rows(invaders), columns,
+                Waves.SCREEN_X, screenY);
+        views = new Invader[invaders];
+        scheduler = new FireScheduler(new XorShiftRandom(42));
+        for (int i = 0; i < invaders; i++) {
+            views[i] = new Invader(formation);
+            views[i].spawn(i / columns, i % columns);
+        }
+        formation.reset(0, 0, Formation.INITIAL_SPEED);
+
+        playerLength = Waves.SCREEN_X / 10;
+        playerX = (Waves.SCREEN_X - playerLength) / 2;
+    }
+
+    @Benchmark
+    public int takeAim() {
+        int shots = 0;
+        for (int i = 0; i < invaders; i++) {
+            if (scheduler.shoots(views[i].isAbove(playerX, playerLength))) {
+                shots++;
+            }
+        }
+        return shots;
+    }
+}
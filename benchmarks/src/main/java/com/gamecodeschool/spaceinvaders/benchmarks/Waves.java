@@ -0,0 +1,48 @@
+package com.gamecodeschool.spaceinvaders.benchmarks;
+
+/**
+ * Sizes the virtual screens the benchmarks run on. Invader sizes and spacing are derived from
+ * the screen size, so large waves need a taller screen to fit above the player.
+ *
+ * @version %I%, %G%
+ */
+final class Waves {
+
+    static final int SCREEN_X = 1920;
+    static final int MIN_SCREEN_Y = 1080;
+
+    private Waves() {
+    }
+
+    /**
+     * Gets the number of invader columns of a wave. The classic wave of 30 invaders keeps its
+     * 6 columns, bigger waves use 10 columns to stay inside the screen width.
+     *
+     * @param invaders  the number of invaders of the wave
+     * @return          the number of columns
+     */
+    static int columns(int invaders) {
+        return invaders <= 30 ? 6 : 10;
+    }
+
+    /**
+     * Gets the number of invader rows of a wave.
+     *
+     * @param invaders  the number of invaders of the wave
+     * @return          the number of rows
+     */
+    static int rows(int invaders) {
+        return (invaders + columns(invaders) - 1) / columns(invaders);
+    }
+
+    /**
+     * Gets a screen height that leaves the wave in the upper half of the screen.
+     *
+     * @param invaders  the number of invaders of the wave
+     * @return          the screen size in y-direction
+     */
+    static int screenY(int invaders) {
+        int rowStep = SCREEN_X / 20 + SCREEN_X / 25 / 4;
+        return Math.max(MIN_SCREEN_Y, rows(invaders) * rowStep * 2);
+    }
+}
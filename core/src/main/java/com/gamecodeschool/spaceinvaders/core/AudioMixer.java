@@ -0,0 +1,154 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Collects sound events from the game and decides once per audio frame which sounds to play.
+ * Posting an event only increments a counter per sound, so the simulation thread never blocks
+ * and never waits for the audio system. The audio thread then takes all events posted since its
+ * last frame: any number of events of one sound play it at most once, a sound still within its
+ * cooldown is skipped, and at most a fixed number of sounds play per frame, the ones of highest
+ * priority first.
+ *
+ * Events may be posted from any thread, mix() must only be called by the audio thread.
+ *
+ * @version %I%, %G%
+ * @see     AtomicIntegerArray
+ */
+public class AudioMixer {
+
+    private final AtomicIntegerArray pending;
+
+    private final int[] priorities;
+    private final long[] cooldowns;
+    private final long[] lastPlayed;
+
+    // Sound indices ordered by descending priority
+    private final int[] order;
+
+    private final int maxPerFrame;
+
+    // Audio thread side counts of events merged into one play and of plays suppressed
+    private volatile long coalesced;
+    private volatile long suppressed;
+
+    /**
+     * Creates a mixer for a number of sounds, all of priority 0 and without cooldown.
+     *
+     * @param sounds        the number of sounds, indexed from 0
+     * @param maxPerFrame   the maximum number of sounds started per frame
+     */
+    public AudioMixer(int sounds, int maxPerFrame) {
+        this.maxPerFrame = maxPerFrame;
+        pending = new AtomicIntegerArray(sounds);
+        priorities = new int[sounds];
+        cooldowns = new long[sounds];
+        lastPlayed = new long[sounds];
+        order = new int[sounds];
+        for (int i = 0; i < sounds; i++) {
+            lastPlayed[i] = Long.MIN_VALUE;
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Sets how a sound is mixed. Must be called before the audio thread starts.
+     *
+     * @param sound         the sounds index
+     * @param priority      the sounds priority, higher priorities are played first
+     * @param cooldownNanos the minimum time between two plays of the sound
+     */
+    public void setSound(int sound, int priority, long cooldownNanos) {
+        priorities[sound] = priority;
+        cooldowns[sound] = cooldownNanos;
+
+        // Insertion sort, sounds of equal priority keep their index order
+        for (int i = 1; i < order.length; i++) {
+            int s = order[i];
+            int j = i - 1;
+            while (j >= 0 && (priorities[order[j]] < priorities[s]
+                    || (priorities[order[j]] == priorities[s] && order[j] > s))) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = s;
+        }
+    }
+
+    /**
+     * Records an event asking to play a sound.
+     *
+     * @param sound the sounds index
+     * @see         AtomicIntegerArray#incrementAndGet(int)
+     */
+    public void post(int sound) {
+        pending.incrementAndGet(sound);
+    }
+
+    /**
+     * Takes all events posted since the last call and picks the sounds to play now.
+     *
+     * @param now       the current System.nanoTime()
+     * @param played    receives the indices of the sounds to play, in descending priority,
+     *                  must hold at least maxPerFrame entries
+     * @return          the number of sounds to play
+     * @see             AtomicIntegerArray#getAndSet(int, int)
+     */
+    public int mix(long now, int[] played) {
+        int count = 0;
+        for (int o = 0; o < order.length; o++) {
+            int sound = order[o];
+            int events = pending.getAndSet(sound, 0);
+            if (events == 0) {
+                continue;
+            }
+            coalesced += events - 1;
+
+            if (count == maxPerFrame || now - cooldowns[sound] < lastPlayed[sound]) {
+                suppressed++;
+                continue;
+            }
+            lastPlayed[sound] = now;
+            played[count] = sound;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the priority of a sound.
+     *
+     * @param sound the sounds index
+     * @return      the sounds priority
+     */
+    public int getPriority(int sound) {
+        return priorities[sound];
+    }
+
+    /**
+     * Gets the maximum number of sounds started per frame.
+     *
+     * @return  the per frame limit
+     */
+    public int getMaxPerFrame() {
+        return maxPerFrame;
+    }
+
+    /**
+     * Gets the number of events merged into the play of another event of the same frame.
+     *
+     * @return  the coalesced event count
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Gets the number of plays skipped for a cooldown or the per frame limit.
+     *
+     * @return  the suppressed play count
+     */
+    public long getSuppressed() {
+        return suppressed;
+    }
+}
@@ -0,0 +1,139 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+/**
+ * An axis aligned rectangle given by its four edges. This is the simulations own bounding box
+ * type, so the game rules do not depend on any platform graphics classes.
+ *
+ * @version %I%, %G%
+ */
+public class Box {
+
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    /**
+     * Creates an empty box at the origin.
+     */
+    public Box() {
+    }
+
+    /**
+     * Creates a box with the given edges.
+     *
+     * @param left      the left edge
+     * @param top       the top edge
+     * @param right     the right edge
+     * @param bottom    the bottom edge
+     */
+    public Box(float left, float top, float right, float bottom) {
+        set(left, top, right, bottom);
+    }
+
+    /**
+     * Sets all four edges.
+     *
+     * @param left      the left edge
+     * @param top       the top edge
+     * @param right     the right edge
+     * @param bottom    the bottom edge
+     */
+    public void set(float left, float top, float right, float bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    /**
+     * Gets the boxes size in x-direction.
+     *
+     * @return  the width
+     */
+    public float width() {
+        return right - left;
+    }
+
+    /**
+     * Gets the boxes size in y-direction.
+     *
+     * @return  the height
+     */
+    public float height() {
+        return bottom - top;
+    }
+
+    /**
+     * Sweeps a moving box against this box.
+     *
+     * @param startX    the moving boxes left edge at the start of the move
+     * @param startY    the moving boxes top edge at the start of the move
+     * @param endX      the moving boxes left edge at the end of the move
+     * @param endY      the moving boxes top edge at the end of the move
+     * @param width     the moving boxes size in x-direction
+     * @param height    the moving boxes size in y-direction
+     * @return          the fraction of the move at which both boxes start to intersect, -1 if
+     *                  they do not intersect during the move
+     * @see             #sweep(float, float, float, float, float, float, float, float, float, float)
+     */
+    public float sweep(float startX, float startY, float endX, float endY,
+                       float width, float height) {
+        return sweep(left, top, right, bottom, startX, startY, endX, endY, width, height);
+    }
+
+    /**
+     * Sweeps a box moving along a straight line against a resting box. The resting box is grown
+     * by the moving boxes size, which turns the test into a segment from the moving boxes
+     * start to its end position against the grown box. The segment is clipped to the grown
+     * boxes extent on each axis; the boxes intersect if the clipped segment is not empty.
+     * Fast objects therefore hit everything on their path, however far they move in a tick.
+     * Boxes only touching at an edge do not intersect.
+     *
+     * @param left      the resting boxes left edge
+     * @param top       the resting boxes top edge
+     * @param right     the resting boxes right edge
+     * @param bottom    the resting boxes bottom edge
+     * @param startX    the moving boxes left edge at the start of the move
+     * @param startY    the moving boxes top edge at the start of the move
+     * @param endX      the moving boxes left edge at the end of the move
+     * @param endY      the moving boxes top edge at the end of the move
+     * @param width     the moving boxes size in x-direction
+     * @param height    the moving boxes size in y-direction
+     * @return          the fraction of the move at which both boxes start to intersect, 0 if
+     *                  they already intersect at the start, -1 if they do not intersect during
+     *                  the move
+     */
+    public static float sweep(float left, float top, float right, float bottom,
+                              float startX, float startY, float endX, float endY,
+                              float width, float height) {
+        float enter = 0;
+        float exit = 1;
+
+        float dx = endX - startX;
+        if (dx == 0) {
+            if (startX <= left - width || startX >= right) {
+                return -1;
+            }
+        } else {
+            float t0 = (left - width - startX) / dx;
+            float t1 = (right - startX) / dx;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+
+        float dy = endY - startY;
+        if (dy == 0) {
+            if (startY <= top - height || startY >= bottom) {
+                return -1;
+            }
+        } else {
+            float t0 = (top - height - startY) / dy;
+            float t1 = (bottom - startY) / dy;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+
+        return enter < exit ? enter : -1;
+    }
+}
@@ -0,0 +1,140 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Represents a single bullet. Includes all functionality to fire the bullet. The player will have
+ * one bullet thus will be able to only fire a single shot at a time. For the invaders an array of
+ * bullets will be prepared to allow them to fire more rapidly.
+ * The bullets state is kept in a slot of an EntityStore, this class is only a view on that slot.
+ *
+ * @version %I%, %G%
+ * @see     EntityStore
+ */
+public class Bullet {
+
+    public final int UP = 0;
+    public final int DOWN = 1;
+
+    private static final float SPEED = 350;
+
+    private final EntityStore store;
+    private final int slot;
+
+    /**
+     * Creates the bullet bound to a slot of the given store. Its size is set depending on the
+     * devices screen height.
+     *
+     * @param store     the store holding the bullets state
+     * @param screenY   the device screen size in y-direction
+     * @see             EntityStore#add()
+     */
+    public Bullet(EntityStore store, int screenY) {
+        this.store = store;
+        slot = store.add();
+
+        store.width[slot] = 1;
+        store.height[slot] = screenY / 20;
+        store.alive[slot] = false;
+    }
+
+    /**
+     * Gets the slot holding the bullets state.
+     *
+     * @return  the bullets slot index
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Gets the bullets activity status. This is used to determine if the player can fire a bullet
+     * and to limit the amount of invader bullets on the screen.
+     *
+     * @return  <code>true</code> if the bullet is active, i.e. on the screen
+     *          <code>false</code> else
+     */
+    public boolean getStatus() {
+        return store.alive[slot];
+    }
+
+    /**
+     * Flags the bullet as inactive. This will be called after the bullet hits a target or the
+     * screen edge.
+     */
+    public void setInactive() {
+        store.alive[slot] = false;
+    }
+
+    /**
+     * Gets the bullet tips y-coordinate. This depends on the bullets direction of travel and
+     * thus will be the top most point for a bullet fired py the player or the bottom most point
+     * for an invader bullet.
+     *
+     * @return  the bullet tips y-coordinate
+     */
+    public float getImpactPointY() {
+        if(store.velocityY[slot] > 0) {
+            return store.y[slot] + store.height[slot];
+        } else {
+            return store.y[slot];
+        }
+    }
+
+    /**
+     * Fires a ready bullet from a given starting point into a given direction.
+     *
+     * @param startX    the starting point x-coordinate
+     * @param startY    the starting point y-coordinate
+     * @param direction the shooting direction
+     *                  0 = UP
+     *                  1 = DOWN
+     * @return          <code>true</code> if the bullet was fired
+     *                  <code>false</code> else
+     */
+    public boolean shoot(float startX, float startY, int direction) {
+        if(!store.alive[slot]) {
+            store.x[slot] = startX;
+            store.y[slot] = startY;
+            store.lastX[slot] = startX;
+            store.lastY[slot] = startY;
+            store.velocityX[slot] = 0;
+            store.velocityY[slot] = direction == UP ? -SPEED : SPEED;
+            store.alive[slot] = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes the position and vertical velocity of the active bullet.
+     *
+     * @param out           the stream to write to
+     * @throws IOException  if writing fails
+     */
+    void writeState(DataOutputStream out) throws IOException {
+        out.writeFloat(store.x[slot]);
+        out.writeFloat(store.y[slot]);
+        out.writeFloat(store.lastX[slot]);
+        out.writeFloat(store.lastY[slot]);
+        out.writeFloat(store.velocityY[slot]);
+    }
+
+    /**
+     * Reads a state written by writeState() and activates the bullet.
+     *
+     * @param in            the stream to read from
+     * @throws IOException  if reading fails
+     */
+    void readState(DataInputStream in) throws IOException {
+        store.x[slot] = in.readFloat();
+        store.y[slot] = in.readFloat();
+        store.lastX[slot] = in.readFloat();
+        store.lastY[slot] = in.readFloat();
+        store.velocityX[slot] = 0;
+        store.velocityY[slot] = in.readFloat();
+        store.alive[slot] = true;
+    }
+}
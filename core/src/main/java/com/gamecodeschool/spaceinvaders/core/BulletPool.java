@@ -0,0 +1,216 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A fixed pool of bullets sharing one EntityStore. Fired bullets are kept in an active list and
+ * unused ones in a free list, so firing takes a free bullet in constant time and every pass over
+ * the bullets only visits the ones on the screen.
+ * Keeps statistics on how often a shot had to be dropped because the pool was exhausted.
+ *
+ * @version %I%, %G%
+ * @see     Bullet
+ * @see     EntityStore
+ */
+public class BulletPool {
+
+    private final EntityStore store;
+    private final Bullet[] bullets;
+
+    private final int[] active;
+    private int numActive;
+
+    private final int[] free;
+    private int numFree;
+
+    private long shotsFired;
+    private long shotsDropped;
+    private int peakActive;
+
+    /**
+     * Creates a pool with all bullets free.
+     *
+     * @param capacity  the maximum number of bullets on the screen at the same time
+     * @param screenY   the device screen size in y-direction
+     */
+    public BulletPool(int capacity, int screenY) {
+        store = new EntityStore(capacity);
+        bullets = new Bullet[capacity];
+        active = new int[capacity];
+        free = new int[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            bullets[i] = new Bullet(store, screenY);
+        }
+        releaseAll();
+    }
+
+    /**
+     * Gets the store holding the state of all bullets in this pool.
+     *
+     * @return  the bullet store
+     */
+    public EntityStore getStore() {
+        return store;
+    }
+
+    /**
+     * Fires a free bullet from a given starting point into a given direction.
+     *
+     * @param startX    the starting point x-coordinate
+     * @param startY    the starting point y-coordinate
+     * @param direction the shooting direction
+     *                  0 = UP
+     *                  1 = DOWN
+     * @return          <code>true</code> if a bullet was fired
+     *                  <code>false</code> if all bullets are active
+     * @see             Bullet#shoot(float, float, int)
+     */
+    public boolean fire(float startX, float startY, int direction) {
+        if (numFree == 0) {
+            shotsDropped++;
+            return false;
+        }
+
+        numFree--;
+        int slot = free[numFree];
+        bullets[slot].shoot(startX, startY, direction);
+
+        active[numActive] = slot;
+        numActive++;
+        shotsFired++;
+        if (numActive > peakActive) {
+            peakActive = numActive;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of bullets on the screen.
+     *
+     * @return  the number of active bullets
+     */
+    public int getActiveCount() {
+        return numActive;
+    }
+
+    /**
+     * Gets the store slot of an active bullet.
+     *
+     * @param index the index in the active list, between 0 and getActiveCount() - 1
+     * @return      the bullets store slot
+     */
+    public int getActiveSlot(int index) {
+        return active[index];
+    }
+
+    /**
+     * Returns an active bullet to the free list. The last active bullet takes its place in the
+     * active list, so loops releasing bullets should walk the active list backwards.
+     *
+     * @param index the index in the active list
+     */
+    public void release(int index) {
+        int slot = active[index];
+        bullets[slot].setInactive();
+
+        numActive--;
+        active[index] = active[numActive];
+
+        free[numFree] = slot;
+        numFree++;
+    }
+
+    /**
+     * Returns all bullets to the free list.
+     */
+    public void releaseAll() {
+        store.clear();
+        numActive = 0;
+        numFree = bullets.length;
+        for (int i = 0; i < numFree; i++) {
+            free[i] = numFree - 1 - i;
+        }
+    }
+
+    /**
+     * Moves all active bullets by their velocity for one update.
+     *
+     * @param fps   the number of updates per second
+     * @see         EntityStore#integrate(int[], int, long)
+     */
+    public void update(long fps) {
+        store.integrate(active, numActive, fps);
+    }
+
+    /**
+     * Gets the number of bullets fired since the pool was created.
+     *
+     * @return  the number of shots fired
+     */
+    public long getShotsFired() {
+        return shotsFired;
+    }
+
+    /**
+     * Gets the number of shots dropped because all bullets were active.
+     *
+     * @return  the number of dropped shots
+     */
+    public long getShotsDropped() {
+        return shotsDropped;
+    }
+
+    /**
+     * Gets the highest number of bullets that were on the screen at the same time.
+     *
+     * @return  the peak number of active bullets
+     */
+    public int getPeakActive() {
+        return peakActive;
+    }
+
+    /**
+     * Writes the number of active bullets followed by each active bullet, in active list order.
+     * Which store slots they use is not kept, it does not change how the game goes on.
+     *
+     * @param out           the stream to write to
+     * @throws IOException  if writing fails
+     * @see                 Bullet#writeState(DataOutputStream)
+     */
+    void writeState(DataOutputStream out) throws IOException {
+        out.writeInt(numActive);
+        for (int i = 0; i < numActive; i++) {
+            bullets[active[i]].writeState(out);
+        }
+    }
+
+    /**
+     * Reads a state written by writeState(), replacing all active bullets. The fired and dropped
+     * shot counts are not part of the state and keep counting.
+     *
+     * @param in            the stream to read from
+     * @throws IOException  if reading fails or there are more bullets than this pool holds
+     * @see                 Bullet#readState(DataInputStream)
+     */
+    void readState(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > bullets.length) {
+            throw new IOException("invalid active bullet count " + count);
+        }
+
+        releaseAll();
+        for (int i = 0; i < count; i++) {
+            numFree--;
+            int slot = free[numFree];
+            bullets[slot].readState(in);
+            active[numActive] = slot;
+            numActive++;
+        }
+        if (numActive > peakActive) {
+            peakActive = numActive;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.util.Arrays;
+
+/**
+ * Holds the state of many moving game objects in parallel primitive arrays, one slot per object.
+ * Movement and collision tests run as linear passes over these arrays instead of visiting one
+ * object after the other. Invader and Bullet are thin views on a single slot.
+ * The arrays are accessed directly by the simulation and therefore package-private, renderers
+ * read single slots through the getters.
+ *
+ * @version %I%, %G%
+ * @see     Bullet
+ * @see     Formation
+ */
+public class EntityStore {
+
+    float[] x;
+    float[] y;
+    float[] lastX;
+    float[] lastY;
+    float[] velocityX;
+    float[] velocityY;
+    float[] width;
+    float[] height;
+    boolean[] alive;
+
+    private int size;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param capacity  the maximum number of slots
+     */
+    public EntityStore(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        lastX = new float[capacity];
+        lastY = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        width = new float[capacity];
+        height = new float[capacity];
+        alive = new boolean[capacity];
+    }
+
+    /**
+     * Hands out the next unused slot. The slot is initially not alive.
+     *
+     * @return  the slot index
+     * @throws  IllegalStateException if all slots are in use
+     */
+    public int add() {
+        if (size == alive.length) {
+            throw new IllegalStateException("entity store is full");
+        }
+        return size++;
+    }
+
+    /**
+     * Gets the number of slots handed out.
+     *
+     * @return  the number of slots in use
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the alive flag of a slot.
+     *
+     * @param slot  the slot index
+     * @return      <code>true</code> if the object is in the game
+     *              <code>false</code> else
+     */
+    public boolean isAlive(int slot) {
+        return alive[slot];
+    }
+
+    /**
+     * Gets the x-position of a slot.
+     *
+     * @param slot  the slot index
+     * @return      the x-position
+     */
+    public float getX(int slot) {
+        return x[slot];
+    }
+
+    /**
+     * Gets the y-position of a slot.
+     *
+     * @param slot  the slot index
+     * @return      the y-position
+     */
+    public float getY(int slot) {
+        return y[slot];
+    }
+
+    /**
+     * Gets the x-position of a slot between the previous and the current update.
+     *
+     * @param slot  the slot index
+     * @param alpha the fraction of a tick passed since the last update, between 0 and 1
+     * @return      the interpolated x-position
+     */
+    public float getInterpolatedX(int slot, float alpha) {
+        return lastX[slot] + (x[slot] - lastX[slot]) * alpha;
+    }
+
+    /**
+     * Gets the y-position of a slot between the previous and the current update.
+     *
+     * @param slot  the slot index
+     * @param alpha the fraction of a tick passed since the last update, between 0 and 1
+     * @return      the interpolated y-position
+     */
+    public float getInterpolatedY(int slot, float alpha) {
+        return lastY[slot] + (y[slot] - lastY[slot]) * alpha;
+    }
+
+    /**
+     * Gets the size in x-direction of a slot.
+     *
+     * @param slot  the slot index
+     * @return      the width
+     */
+    public float getWidth(int slot) {
+        return width[slot];
+    }
+
+    /**
+     * Gets the size in y-direction of a slot.
+     *
+     * @param slot  the slot index
+     * @return      the height
+     */
+    public float getHeight(int slot) {
+        return height[slot];
+    }
+
+    /**
+     * Flags every slot as not alive. The slots stay in use.
+     */
+    public void clear() {
+        Arrays.fill(alive, false);
+    }
+
+    /**
+     * Moves every alive object by its velocity for one update and remembers its previous
+     * position for interpolation.
+     *
+     * @param fps   the number of updates per second
+     */
+    public void integrate(long fps) {
+        for (int i = 0; i < size; i++) {
+            if (alive[i]) {
+                lastX[i] = x[i];
+                lastY[i] = y[i];
+                x[i] = x[i] + velocityX[i] / fps;
+                y[i] = y[i] + velocityY[i] / fps;
+            }
+        }
+    }
+
+    /**
+     * Moves the given objects by their velocity for one update and remembers their previous
+     * position for interpolation.
+     *
+     * @param slots the slots of the objects to move
+     * @param count the number of slots to take from slots
+     * @param fps   the number of updates per second
+     */
+    public void integrate(int[] slots, int count, long fps) {
+        for (int s = 0; s < count; s++) {
+            int i = slots[s];
+            lastX[i] = x[i];
+            lastY[i] = y[i];
+            x[i] = x[i] + velocityX[i] / fps;
+            y[i] = y[i] + velocityY[i] / fps;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Decides which invaders shoot. Each tick every visible invader has a one in FAR_ODDS chance to
+ * shoot, and an invader above the player ship has an extra one in NEAR_ODDS chance.
+ *
+ * Instead of drawing a random number per invader and tick, the scheduler treats all those
+ * chances as one long series of trials and draws how many trials pass until the next shot from
+ * the geometric distribution. A trial then only counts down, and a random number is drawn once
+ * per shot, no matter how many invaders there are.
+ *
+ * @version %I%, %G%
+ * @see     XorShiftRandom
+ */
+public class FireScheduler {
+
+    public static final int NEAR_ODDS = 150;
+    public static final int FAR_ODDS = 2000;
+
+    private static final double NEAR_LOG_MISS = Math.log(1 - 1.0 / NEAR_ODDS);
+    private static final double FAR_LOG_MISS = Math.log(1 - 1.0 / FAR_ODDS);
+
+    private final XorShiftRandom random;
+
+    // Trials left to miss before the next shot
+    private long nearMisses;
+    private long farMisses;
+
+    /**
+     * Creates a scheduler drawing from the given generator.
+     *
+     * @param random    the generator to draw the time between shots from
+     */
+    public FireScheduler(XorShiftRandom random) {
+        this.random = random;
+        nearMisses = drawMisses(NEAR_LOG_MISS);
+        farMisses = drawMisses(FAR_LOG_MISS);
+    }
+
+    /**
+     * Runs the trials of one invader for one tick.
+     *
+     * @param nearPlayer    <code>true</code> if the invader is above the player ship
+     * @return              <code>true</code> if the invader shoots
+     *                      <code>false</code> else
+     */
+    public boolean shoots(boolean nearPlayer) {
+        boolean shoots = false;
+        if (nearPlayer && --nearMisses < 0) {
+            nearMisses = drawMisses(NEAR_LOG_MISS);
+            shoots = true;
+        }
+        if (--farMisses < 0) {
+            farMisses = drawMisses(FAR_LOG_MISS);
+            shoots = true;
+        }
+        return shoots;
+    }
+
+    /**
+     * Draws the number of failed trials before the next success from the geometric
+     * distribution, by inverting its distribution function.
+     *
+     * @param logMiss   the natural logarithm of a single trials chance to fail
+     * @return          the number of failures
+     * @see             Math#log(double)
+     */
+    private long drawMisses(double logMiss) {
+        // 1 - nextDouble() is never 0, so the logarithm stays finite
+        return (long) (Math.log(1 - random.nextDouble()) / logMiss);
+    }
+
+    /**
+     * Writes the generators state and the trials left before the next shots.
+     *
+     * @param out           the stream to write to
+     * @throws IOException  if writing fails
+     */
+    void writeState(DataOutputStream out) throws IOException {
+        random.writeState(out);
+        out.writeLong(nearMisses);
+        out.writeLong(farMisses);
+    }
+
+    /**
+     * Reads a state written by writeState().
+     *
+     * @param in            the stream to read from
+     * @throws IOException  if reading fails
+     */
+    void readState(DataInputStream in) throws IOException {
+        random.readState(in);
+        nearMisses = in.readLong();
+        farMisses = in.readLong();
+    }
+}
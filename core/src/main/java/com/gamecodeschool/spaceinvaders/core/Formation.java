@@ -0,0 +1,561 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Moves a wave of invaders as one block. The wave has a single offset and a single horizontal
+ * velocity, each invader only keeps its fixed position in the grid relative to that offset. The
+ * number of alive invaders per column, per row and in total is kept up to date on every kill,
+ * so the leftmost and rightmost alive column and the lowest alive row, and with them the edge,
+ * invasion and victory tests, are known in constant time. Loops over the invaders only need to
+ * visit the rows and columns within these bounds. Bullets are swept relative to the moving
+ * formation and only tested against the invaders in the grid cells their path covers.
+ *
+ * @version %I%, %G%
+ * @see     Invader
+ * @see     EntityStore
+ */
+public class Formation {
+
+    /**
+     * The horizontal speed of a new classic wave, in pixels per second.
+     */
+    public static final float INITIAL_SPEED = 40;
+
+    // Grid positions relative to the offset, sizes and alive flags, slot = row * columns + column
+    private final EntityStore store;
+
+    private final int rows;
+    private final int columns;
+    private final float invaderLength;
+    private final float invaderHeight;
+    private final float pitchX;
+    private final float pitchY;
+
+    private final int[] aliveInColumn;
+    private final int[] aliveInRow;
+    private int leftColumn;
+    private int rightColumn;
+    private int bottomRow;
+    private int aliveCount;
+
+    private float x;
+    private float y;
+    private float lastX;
+    private float lastY;
+    private float velocityX;
+
+    private int narrowPhaseTests;
+    private float sweepTime;
+
+    /**
+     * Creates an empty formation sized for the screen. Invaders are added by creating them with
+     * this formation and spawning them.
+     *
+     * @param rows      the number of invader rows
+     * @param columns   the number of invader columns
+     * @param screenX   the screens size in x-direction
+     * @param screenY   the screens size in y-direction
+     */
+    public Formation(int rows, int columns, int screenX, int screenY) {
+        this(rows, columns, screenX / 20, screenY / 20,
+                screenX / 20 + screenX / 25, screenX / 20 + screenX / 25 / 4);
+    }
+
+    /**
+     * Creates an empty formation of a given invader size and spacing.
+     *
+     * @param rows          the number of invader rows
+     * @param columns       the number of invader columns
+     * @param invaderLength the size of an invader in x-direction
+     * @param invaderHeight the size of an invader in y-direction
+     * @param pitchX        the distance between the left edges of two neighbouring columns
+     * @param pitchY        the distance between the top edges of two neighbouring rows
+     */
+    public Formation(int rows, int columns, float invaderLength, float invaderHeight,
+                     float pitchX, float pitchY) {
+        this.rows = rows;
+        this.columns = columns;
+        this.invaderLength = invaderLength;
+        this.invaderHeight = invaderHeight;
+        this.pitchX = pitchX;
+        this.pitchY = pitchY;
+
+        store = new EntityStore(rows * columns);
+        aliveInColumn = new int[columns];
+        aliveInRow = new int[rows];
+    }
+
+    /**
+     * Hands out the slot of the next invader.
+     *
+     * @return  the slot index
+     * @see     EntityStore#add()
+     */
+    int add() {
+        return store.add();
+    }
+
+    /**
+     * Puts an invader into its grid cell and into the game.
+     *
+     * @param slot      the invaders slot
+     * @param row       the invaders row index
+     * @param column    the invaders column index
+     */
+    void spawn(int slot, int row, int column) {
+        store.x[slot] = column * pitchX;
+        store.y[slot] = row * pitchY;
+        store.width[slot] = invaderLength;
+        store.height[slot] = invaderHeight;
+        store.alive[slot] = true;
+    }
+
+    /**
+     * Takes all invaders out of the game. A new wave then spawns the invaders it uses and resets
+     * the formation, so grid cells left out stay empty.
+     *
+     * @see EntityStore#clear()
+     */
+    public void clear() {
+        store.clear();
+    }
+
+    /**
+     * Moves the formation to a given offset and speed and counts the alive invaders of each
+     * column and row. Called after the invaders of a new wave were spawned.
+     *
+     * @param x         the x-offset
+     * @param y         the y-offset
+     * @param velocityX the horizontal speed, negative to move left
+     */
+    public void reset(float x, float y, float velocityX) {
+        this.x = x;
+        this.y = y;
+        lastX = x;
+        lastY = y;
+        this.velocityX = velocityX;
+        count();
+    }
+
+    /**
+     * Counts the alive invaders of each column and row and finds the outermost alive columns
+     * and the lowest alive row.
+     */
+    private void count() {
+        for (int column = 0; column < columns; column++) {
+            aliveInColumn[column] = 0;
+        }
+        for (int row = 0; row < rows; row++) {
+            aliveInRow[row] = 0;
+        }
+        aliveCount = 0;
+        for (int slot = 0; slot < store.size(); slot++) {
+            if (store.alive[slot]) {
+                aliveInColumn[slot % columns]++;
+                aliveInRow[slot / columns]++;
+                aliveCount++;
+            }
+        }
+
+        leftColumn = 0;
+        rightColumn = columns - 1;
+        bottomRow = rows - 1;
+        shrink();
+    }
+
+    /**
+     * Moves the formation by its velocity for one update and remembers its previous position
+     * for interpolation.
+     *
+     * @param fps   the number of updates per second
+     */
+    public void move(long fps) {
+        lastX = x;
+        lastY = y;
+        x = x + velocityX / fps;
+    }
+
+    /**
+     * Checks if an alive invader reaches out of the given horizontal bounds.
+     *
+     * @param minX  the left bound
+     * @param maxX  the right bound
+     * @return      <code>true</code> if the leftmost or rightmost alive column crossed a bound
+     *              <code>false</code> else
+     */
+    public boolean isOutside(float minX, float maxX) {
+        if (aliveCount == 0) {
+            return false;
+        }
+        return x + leftColumn * pitchX < minX
+                || x + rightColumn * pitchX + invaderLength > maxX;
+    }
+
+    /**
+     * Moves the formation down by one invader height, reverses its horizontal direction and
+     * scales its horizontal speed.
+     *
+     * @param speedFactor   the factor to scale the horizontal speed by
+     */
+    public void dropDownAndReverse(float speedFactor) {
+        y = y + invaderHeight;
+        velocityX = -velocityX * speedFactor;
+    }
+
+    /**
+     * Checks if the top edge of the lowest alive row is below the given y-coordinate.
+     *
+     * @param limit the y-coordinate
+     * @return      <code>true</code> if an alive invader is below the limit
+     *              <code>false</code> else
+     */
+    public boolean isBelow(float limit) {
+        if (aliveCount == 0) {
+            return false;
+        }
+        return y + bottomRow * pitchY > limit;
+    }
+
+    /**
+     * Finds the first alive invader a moving box runs into during the last move of the
+     * formation. The box is swept relative to the formation, from its start position against
+     * the formations previous offset to its end position against the current one. Only the
+     * invaders in the grid cells the swept box covers are tested exactly.
+     *
+     * @param startX    the boxes left edge at the start of the tick
+     * @param startY    the boxes top edge at the start of the tick
+     * @param endX      the boxes left edge at the end of the tick
+     * @param endY      the boxes top edge at the end of the tick
+     * @param width     the boxes size in x-direction
+     * @param height    the boxes size in y-direction
+     * @return          the slot of the invader hit first, -1 if none
+     * @see             #getSweepTime()
+     * @see             Box
+     */
+    public int sweep(float startX, float startY, float endX, float endY,
+                     float width, float height) {
+        startX -= lastX;
+        startY -= lastY;
+        endX -= x;
+        endY -= y;
+
+        float left = Math.min(startX, endX);
+        float top = Math.min(startY, endY);
+        float right = Math.max(startX, endX) + width;
+        float bottom = Math.max(startY, endY) + height;
+
+        int firstColumn = Math.max(0, (int) Math.floor(left / pitchX));
+        int lastColumn = Math.min(columns - 1, (int) Math.floor(right / pitchX));
+        int firstRow = Math.max(0, (int) Math.floor(top / pitchY));
+        int lastRow = Math.min(rows - 1, (int) Math.floor(bottom / pitchY));
+
+        int hit = -1;
+        sweepTime = 1;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int slot = row * columns + column;
+                if (store.alive[slot]) {
+                    narrowPhaseTests++;
+                    float time = Box.sweep(store.x[slot], store.y[slot],
+                            store.x[slot] + store.width[slot], store.y[slot] + store.height[slot],
+                            startX, startY, endX, endY, width, height);
+                    if (time >= 0 && (hit < 0 || time < sweepTime)) {
+                        hit = slot;
+                        sweepTime = time;
+                    }
+                }
+            }
+        }
+        return hit;
+    }
+
+    /**
+     * Gets the fraction of the tick at which the invader found by the last sweep was hit.
+     *
+     * @return  the hit time between 0 and 1, 1 if the last sweep did not hit
+     */
+    public float getSweepTime() {
+        return sweepTime;
+    }
+
+    /**
+     * Takes an invader out of the game and updates the alive columns and rows.
+     *
+     * @param slot  the invaders slot
+     */
+    public void kill(int slot) {
+        if (!store.alive[slot]) {
+            return;
+        }
+        store.alive[slot] = false;
+        aliveInColumn[slot % columns]--;
+        aliveInRow[slot / columns]--;
+        aliveCount--;
+        shrink();
+    }
+
+    /**
+     * Moves the leftmost and rightmost alive column and the lowest alive row inwards past
+     * columns and rows without alive invaders.
+     */
+    private void shrink() {
+        while (leftColumn <= rightColumn && aliveInColumn[leftColumn] == 0) {
+            leftColumn++;
+        }
+        while (rightColumn >= leftColumn && aliveInColumn[rightColumn] == 0) {
+            rightColumn--;
+        }
+        while (bottomRow > 0 && aliveInRow[bottomRow] == 0) {
+            bottomRow--;
+        }
+    }
+
+    /**
+     * Gets and resets the number of exact intersection tests run since the last call.
+     *
+     * @return  the number of narrow-phase tests
+     */
+    public int takeNarrowPhaseTests() {
+        int tests = narrowPhaseTests;
+        narrowPhaseTests = 0;
+        return tests;
+    }
+
+    /**
+     * Gets the number of invaders in the game.
+     *
+     * @return  the alive invader count, 0 once the wave is defeated
+     */
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * Gets the number of alive invaders in a row.
+     *
+     * @param row   the row index
+     * @return      the rows alive invader count
+     */
+    public int getAliveInRow(int row) {
+        return aliveInRow[row];
+    }
+
+    /**
+     * Gets the leftmost column holding an alive invader.
+     *
+     * @return  the column index, greater than getRightColumn() if no invader is alive
+     */
+    public int getLeftColumn() {
+        return leftColumn;
+    }
+
+    /**
+     * Gets the rightmost column holding an alive invader.
+     *
+     * @return  the column index, less than getLeftColumn() if no invader is alive
+     */
+    public int getRightColumn() {
+        return rightColumn;
+    }
+
+    /**
+     * Gets the lowest row holding an alive invader.
+     *
+     * @return  the row index, 0 if no invader is alive
+     */
+    public int getBottomRow() {
+        return bottomRow;
+    }
+
+    /**
+     * Gets the number of columns of the grid.
+     *
+     * @return  the column count
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets the alive flag of an invader.
+     *
+     * @param slot  the invaders slot
+     * @return      <code>true</code> if the invader is in the game
+     *              <code>false</code> else
+     */
+    public boolean isAlive(int slot) {
+        return store.alive[slot];
+    }
+
+    /**
+     * Gets the x-position of an invader.
+     *
+     * @param slot  the invaders slot
+     * @return      the x-position
+     */
+    public float getX(int slot) {
+        return x + store.x[slot];
+    }
+
+    /**
+     * Gets the y-position of an invader.
+     *
+     * @param slot  the invaders slot
+     * @return      the y-position
+     */
+    public float getY(int slot) {
+        return y + store.y[slot];
+    }
+
+    /**
+     * Gets the x-position of an invader between the previous and the current update.
+     *
+     * @param slot  the invaders slot
+     * @param alpha the fraction of a tick passed since the last update, between 0 and 1
+     * @return      the interpolated x-position
+     */
+    public float getInterpolatedX(int slot, float alpha) {
+        return lastX + (x - lastX) * alpha + store.x[slot];
+    }
+
+    /**
+     * Gets the y-position of an invader between the previous and the current update.
+     *
+     * @param slot  the invaders slot
+     * @param alpha the fraction of a tick passed since the last update, between 0 and 1
+     * @return      the interpolated y-position
+     */
+    public float getInterpolatedY(int slot, float alpha) {
+        return lastY + (y - lastY) * alpha + store.y[slot];
+    }
+
+    /**
+     * Gets the size of an invader in x-direction.
+     *
+     * @return  the invaders length
+     */
+    public float getInvaderLength() {
+        return invaderLength;
+    }
+
+    /**
+     * Gets the size of an invader in y-direction.
+     *
+     * @return  the invaders height
+     */
+    public float getInvaderHeight() {
+        return invaderHeight;
+    }
+
+    /**
+     * Gets the distance between the left edges of two neighbouring columns.
+     *
+     * @return  the column pitch
+     */
+    public float getPitchX() {
+        return pitchX;
+    }
+
+    /**
+     * Gets the distance between the top edges of two neighbouring rows.
+     *
+     * @return  the row pitch
+     */
+    public float getPitchY() {
+        return pitchY;
+    }
+
+    /**
+     * Gets the number of invader slots handed out.
+     *
+     * @return  the number of invaders
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Gets the formations x-offset.
+     *
+     * @return  the x-offset
+     */
+    public float getOffsetX() {
+        return x;
+    }
+
+    /**
+     * Gets the formations y-offset.
+     *
+     * @return  the y-offset
+     */
+    public float getOffsetY() {
+        return y;
+    }
+
+    /**
+     * Gets the formations horizontal speed.
+     *
+     * @return  the velocity in x-direction per second
+     */
+    public float getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * Writes the formations offset and velocity and which invaders are alive, one bit per slot
+     * packed into longs.
+     *
+     * @param out           the stream to write to
+     * @throws IOException  if writing fails
+     */
+    void writeState(DataOutputStream out) throws IOException {
+        out.writeFloat(x);
+        out.writeFloat(y);
+        out.writeFloat(lastX);
+        out.writeFloat(lastY);
+        out.writeFloat(velocityX);
+
+        int size = store.size();
+        for (int word = 0; word < (size + 63) / 64; word++) {
+            long bits = 0;
+            for (int bit = 0; bit < 64 && word * 64 + bit < size; bit++) {
+                if (store.alive[word * 64 + bit]) {
+                    bits |= 1L << bit;
+                }
+            }
+            out.writeLong(bits);
+        }
+    }
+
+    /**
+     * Reads a state written by writeState() by a formation of the same size and counts the alive
+     * invaders again. The alive invaders are spawned into their grid cells, as the wave this
+     * formation last prepared may not have used them.
+     *
+     * @param in            the stream to read from
+     * @throws IOException  if reading fails
+     */
+    void readState(DataInputStream in) throws IOException {
+        x = in.readFloat();
+        y = in.readFloat();
+        lastX = in.readFloat();
+        lastY = in.readFloat();
+        velocityX = in.readFloat();
+
+        int size = store.size();
+        for (int word = 0; word < (size + 63) / 64; word++) {
+            long bits = in.readLong();
+            for (int bit = 0; bit < 64 && word * 64 + bit < size; bit++) {
+                int slot = word * 64 + bit;
+                store.alive[slot] = false;
+                if ((bits & (1L << bit)) != 0) {
+                    spawn(slot, slot / columns, slot % columns);
+                }
+            }
+        }
+        count();
+    }
+}
@@ -0,0 +1,64 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+/**
+ * Sums up the time a thread spends on each iteration of its loop. Written by that thread only,
+ * other threads may read the values at any time but might see them slightly out of sync.
+ *
+ * @version %I%, %G%
+ */
+public class FrameTimer {
+
+    private volatile long count;
+    private volatile long totalNanos;
+    private volatile long maxNanos;
+
+    /**
+     * Adds the time of one iteration.
+     *
+     * @param nanos the iterations duration in nanoseconds
+     */
+    public void record(long nanos) {
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    /**
+     * Forgets all recorded times.
+     */
+    public void reset() {
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    /**
+     * Gets the number of iterations recorded.
+     *
+     * @return  the iteration count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the average duration of the recorded iterations.
+     *
+     * @return  the average in nanoseconds, 0 if nothing was recorded
+     */
+    public long getAverageNanos() {
+        long iterations = count;
+        return iterations == 0 ? 0 : totalNanos / iterations;
+    }
+
+    /**
+     * Gets the longest recorded iteration.
+     *
+     * @return  the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
@@ -0,0 +1,48 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+/**
+ * Receives the events of a running GameSimulation that are of interest to the outside world,
+ * e.g. to play sounds or to persist the high score. All methods are called on the thread
+ * running the simulation.
+ *
+ * @version %I%, %G%
+ * @see     GameSimulation
+ */
+public interface GameListener {
+
+    /**
+     * Called after the player fired a bullet.
+     */
+    void onPlayerShot();
+
+    /**
+     * Called after the players bullet destroyed an invader.
+     */
+    void onInvaderDestroyed();
+
+    /**
+     * Called after a bullet destroyed at least one shelter brick.
+     */
+    void onShelterDamaged();
+
+    /**
+     * Called after an invader bullet hit the player ship.
+     */
+    void onPlayerHit();
+
+    /**
+     * Called when a game ended with a score above the previous high score.
+     *
+     * @param highScore the new high score
+     */
+    void onHighScore(int highScore);
+
+    /**
+     * Called when a game ended, before the next one is prepared.
+     *
+     * @param score the games final score
+     * @param won   <code>true</code> if the wave was cleared
+     *              <code>false</code> if the player lost
+     */
+    void onGameOver(int score, boolean won);
+}
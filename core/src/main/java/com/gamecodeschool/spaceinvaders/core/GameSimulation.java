@@ -0,0 +1,981 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Holds this games objects and rules. Advances the game in fixed ticks, handles the invader
+ * shooting logic, bullet hits, invader drop downs, scoring, victory and loss conditions.
+ * The simulation does not depend on any platform classes, so it can be driven by the Android
+ * view as well as run headless on a plain JVM. All randomness comes from one generator seeded at
+ * construction, so a seed and the player commands given before each tick reproduce a game.
+ * A WaveSchedule decides the waves: the classic game of one formation, or the endless game of
+ * ever bigger waves of several formations.
+ *
+ * @version %I%, %G%
+ * @see     GameListener
+ * @see     Replay
+ * @see     WaveSchedule
+ * @see     #writeState(OutputStream)
+ */
+public class GameSimulation {
+
+    /**
+     * The fixed simulation rate. Every call to update() advances the game by exactly one tick
+     * of this length.
+     */
+    public static final long TICKS_PER_SECOND = 60;
+
+    /**
+     * The length of a single tick in nanoseconds.
+     */
+    public static final long NANOS_PER_TICK = 1000000000L / TICKS_PER_SECOND;
+
+    public static final int DEFAULT_INVADER_ROWS = 5;
+    public static final int DEFAULT_INVADER_COLUMNS = 6;
+    public static final int DEFAULT_MAX_INVADER_BULLETS = 10;
+
+    private static final int STATE_MAGIC = 0x53495347;
+
+    // Raised whenever the state format changes, older states are then dropped
+    private static final int STATE_VERSION = 2;
+
+    private static final int LIVES = 3;
+    private static final int POINTS_PER_INVADER = 10;
+    private static final long INITIAL_MENACE_INTERVAL = 1000;
+
+    private final int screenX;
+    private final int screenY;
+
+    private final WaveSchedule schedule;
+    private final int invaderRows;
+    private final int invaderColumns;
+    private final int maxInvaderBullets;
+    private final long seed;
+
+    private GameListener listener;
+
+    private boolean paused = true;
+
+    private final PlayerShip playerShip;
+    private final EntityStore playerBulletStore = new EntityStore(1);
+    private final Bullet bullet;
+    private final BulletPool invaderBullets;
+    private final Formation[] formations;
+    private final Invader[] invaders;
+    private int numInvaders;
+    private int wave;
+    private final FireScheduler fireScheduler;
+    private final ShelterField shelters;
+
+    private int narrowPhaseTests;
+
+    private final PhaseProfiler profiler = new PhaseProfiler();
+
+    private int highScore;
+    private int score = 0;
+    private int lives = LIVES;
+
+    private long menaceInterval = INITIAL_MENACE_INTERVAL;
+
+    // Number of updates run
+    private int tick;
+
+    private Replay replay;
+
+    /**
+     * Creates a simulation of the classic wave of 5 x 6 invaders.
+     *
+     * @param screenX   the screens size in x-direction
+     * @param screenY   the screens size in y-direction
+     */
+    public GameSimulation(int screenX, int screenY) {
+        this(screenX, screenY,
+                DEFAULT_INVADER_ROWS, DEFAULT_INVADER_COLUMNS, DEFAULT_MAX_INVADER_BULLETS);
+    }
+
+    /**
+     * Creates a simulation with a custom wave size and a random seed. The game starts paused.
+     *
+     * @param screenX           the screens size in x-direction
+     * @param screenY           the screens size in y-direction
+     * @param invaderRows       the number of invader rows of a wave
+     * @param invaderColumns    the number of invader columns of a wave
+     * @param maxInvaderBullets the maximum number of invader bullets on the screen
+     */
+    public GameSimulation(int screenX, int screenY,
+                          int invaderRows, int invaderColumns, int maxInvaderBullets) {
+        this(screenX, screenY, invaderRows, invaderColumns, maxInvaderBullets, System.nanoTime());
+    }
+
+    /**
+     * Creates a simulation with a custom wave size and a given seed. Two simulations created
+     * alike and given the same commands before each tick run the same game. The game starts
+     * paused.
+     *
+     * @param screenX           the screens size in x-direction
+     * @param screenY           the screens size in y-direction
+     * @param invaderRows       the number of invader rows of a wave
+     * @param invaderColumns    the number of invader columns of a wave
+     * @param maxInvaderBullets the maximum number of invader bullets on the screen
+     * @param seed              the seed of the random number generator
+     */
+    public GameSimulation(int screenX, int screenY, int invaderRows, int invaderColumns,
+                          int maxInvaderBullets, long seed) {
+        this(screenX, screenY, WaveSchedule.classic(invaderRows, invaderColumns),
+                maxInvaderBullets, seed);
+    }
+
+    /**
+     * Creates a simulation of the waves of a schedule with a given seed. Two simulations created
+     * alike and given the same commands before each tick run the same game. The game starts
+     * paused.
+     *
+     * @param screenX           the screens size in x-direction
+     * @param screenY           the screens size in y-direction
+     * @param schedule          the schedule deciding the formations and invaders of each wave
+     * @param maxInvaderBullets the maximum number of invader bullets on the screen
+     * @param seed              the seed of the random number generator
+     * @see                     WaveSchedule#createFormation(int, int)
+     */
+    public GameSimulation(int screenX, int screenY, WaveSchedule schedule,
+                          int maxInvaderBullets, long seed) {
+        this.screenX = screenX;
+        this.screenY = screenY;
+        this.schedule = schedule;
+        this.invaderRows = schedule.getRows();
+        this.invaderColumns = schedule.getColumns();
+        this.maxInvaderBullets = maxInvaderBullets;
+        this.seed = seed;
+        fireScheduler = new FireScheduler(new XorShiftRandom(seed));
+
+        playerShip = new PlayerShip(screenX, screenY);
+
+        // The views on the entity stores are created once and reused by every level
+        bullet = new Bullet(playerBulletStore, screenY);
+        invaderBullets = new BulletPool(maxInvaderBullets, screenY);
+
+        // Invader index = formation * invaderRows * invaderColumns + slot in the formation
+        int perFormation = invaderRows * invaderColumns;
+        formations = new Formation[schedule.getFormations()];
+        invaders = new Invader[schedule.getMaxInvaders()];
+        for(int f = 0; f < formations.length; f++) {
+            formations[f] = schedule.createFormation(screenX, screenY);
+            for(int slot = 0; slot < perFormation; slot++) {
+                invaders[f * perFormation + slot] = new Invader(formations[f]);
+            }
+        }
+
+        shelters = new ShelterField(screenX, screenY);
+
+        prepareLevel();
+    }
+
+    /**
+     * Starts recording the commands applied and the state hash after each tick into a replay.
+     *
+     * @param replay    the replay to record into, may be <code>null</code> to stop recording
+     * @see             #applyCommand(int)
+     * @see             #stateHash()
+     */
+    public void setReplay(Replay replay) {
+        this.replay = replay;
+    }
+
+    /**
+     * Sets the listener to notify about game events.
+     *
+     * @param listener  the listener, may be <code>null</code>
+     */
+    public void setListener(GameListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Puts all game objects back to the start of the current wave. The formations of the wave
+     * are stacked from the top of the screen down and start at alternating screen edges, the
+     * formations not in the wave stay empty.
+     *
+     * @see PlayerShip#reset()
+     * @see EntityStore#clear()
+     * @see BulletPool#releaseAll()
+     * @see Formation#clear()
+     * @see Invader#spawn(int, int)
+     * @see Formation#reset(float, float, float)
+     * @see ShelterField#reset()
+     * @see WaveSchedule
+     */
+    public void prepareLevel() {
+
+        menaceInterval = INITIAL_MENACE_INTERVAL;
+        playerShip.reset();
+        playerBulletStore.clear();
+        invaderBullets.releaseAll();
+
+        int waveFormations = schedule.getFormations(wave);
+        int rows = schedule.getRows(wave);
+        int columns = schedule.getColumns(wave);
+        float speed = schedule.getSpeed(wave);
+
+        numInvaders = 0;
+        for(int f = 0; f < formations.length; f++) {
+            Formation formation = formations[f];
+            formation.clear();
+            if(f < waveFormations) {
+                int first = f * invaderRows * invaderColumns;
+                for(int row = 0; row < rows; row++) {
+                    for(int column = 0; column < columns; column++) {
+                        invaders[first + row * invaderColumns + column].spawn(row, column);
+                        numInvaders++;
+                    }
+                }
+            }
+
+            float y = f * (rows + 1) * formation.getPitchY();
+            if(f % 2 == 0) {
+                formation.reset(0, y, speed);
+            } else {
+                float width = (columns - 1) * formation.getPitchX() + formation.getInvaderLength();
+                formation.reset(screenX - width, y, -speed);
+            }
+        }
+
+        shelters.reset();
+    }
+
+    /**
+     * Starts a wave of the schedule, keeping score and lives. This is used by tests and
+     * benchmarks to skip to the large waves of the endless schedule.
+     *
+     * @param wave  the waves index, 0 for the first wave
+     * @see         #prepareLevel()
+     */
+    public void setWave(int wave) {
+        this.wave = wave;
+        prepareLevel();
+    }
+
+    /**
+     * Counts the alive invaders of all formations.
+     *
+     * @return  the number of invaders in the game
+     * @see     Formation#getAliveCount()
+     */
+    private int getAliveCount() {
+        int alive = 0;
+        for(int f = 0; f < formations.length; f++) {
+            alive += formations[f].getAliveCount();
+        }
+        return alive;
+    }
+
+    /**
+     * Raises the high score to the score of the game just ended, won or lost.
+     *
+     * @see GameListener#onHighScore(int)
+     */
+    private void updateHighScore() {
+        if(score > highScore) {
+            highScore = score;
+            if (listener != null) {
+                listener.onHighScore(highScore);
+            }
+        }
+    }
+
+    /**
+     * Advances the game by one fixed tick based on player input and game actions.
+     * Checks for bullet hits, necessary invader drop downs, victory and loss conditions.
+     * Handles the invader shooting logic.
+     * Bullets are swept along their path of the tick, so fast bullets cannot skip over thin
+     * targets. Their hits are only tested exactly against the invaders in the formation cells
+     * and the shelter bricks the path covers.
+     *
+     * @see Formation#move(long)
+     * @see Formation#isOutside(float, float)
+     * @see Formation#dropDownAndReverse(float)
+     * @see Formation#isBelow(float)
+     * @see Formation#sweep(float, float, float, float, float, float)
+     * @see Formation#kill(int)
+     * @see Formation#getAliveCount()
+     * @see Invader#isAbove(float, float)
+     * @see FireScheduler#shoots(boolean)
+     * @see PlayerShip#update(long)
+     * @see BulletPool#fire(float, float, int)
+     * @see BulletPool#release(int)
+     * @see ShelterField#sweep(float, float, float, float, float, float, float)
+     * @see Box#sweep(float, float, float, float, float, float)
+     * @see PhaseProfiler#lap(int, long)
+     * @see Replay#recordTick(int)
+     */
+    public void update() {
+
+        boolean lost = false;
+
+        long time = profiler.start();
+
+        playerShip.update(TICKS_PER_SECOND);
+
+        // Move the invaders of each formation as one block
+        for(int f = 0; f < formations.length; f++) {
+            formations[f].move(TICKS_PER_SECOND);
+        }
+
+        // Make the visible invaders shoot, skipping rows and outer columns without any
+        float playerX = playerShip.getX();
+        float playerLength = playerShip.getLength();
+        for(int f = 0; f < formations.length; f++) {
+            Formation formation = formations[f];
+            int first = f * invaderRows * invaderColumns;
+            int bottomRow = formation.getBottomRow();
+            int leftColumn = formation.getLeftColumn();
+            int rightColumn = formation.getRightColumn();
+            for(int row = 0; row <= bottomRow; row++) {
+                if(formation.getAliveInRow(row) == 0) {
+                    continue;
+                }
+                for(int column = leftColumn; column <= rightColumn; column++) {
+                    int i = first + row * invaderColumns + column;
+                    if(invaders[i].getVisibility()) {
+                        if(fireScheduler.shoots(invaders[i].isAbove(playerX, playerLength))){
+                            invaderBullets.fire(invaders[i].getX() + invaders[i].getLength() / 2,
+                                    invaders[i].getY(), bullet.DOWN);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Check for invaders bumping into the screen edge, drop them down if necessary
+        // Check for successful invasion
+        for(int f = 0; f < formations.length; f++) {
+            if(formations[f].isOutside(0, screenX)) {
+                formations[f].dropDownAndReverse(1.18f);
+                lost = lost || formations[f].isBelow(screenY - screenY / 10);
+                menaceInterval = menaceInterval - 80;
+            }
+        }
+
+        if(lost){
+            prepareLevel();
+        }
+
+        time = profiler.lap(PhaseProfiler.INVADERS, time);
+
+        // Update all the invaders bullets if active
+        invaderBullets.update(TICKS_PER_SECOND);
+
+        playerBulletStore.integrate(TICKS_PER_SECOND);
+
+        time = profiler.lap(PhaseProfiler.BULLETS, time);
+
+        int b = bullet.getSlot();
+        float bulletWidth = playerBulletStore.width[b];
+        float bulletHeight = playerBulletStore.height[b];
+
+        // Check for a successful player shot and for player victory. A shelter brick on the
+        // bullets path before the invader hit stops the bullet first.
+        if(bullet.getStatus()) {
+            int hitFormation = -1;
+            int slot = -1;
+            float reach = 1;
+            for(int f = 0; f < formations.length; f++) {
+                int hit = formations[f].sweep(playerBulletStore.lastX[b],
+                        playerBulletStore.lastY[b], playerBulletStore.x[b],
+                        playerBulletStore.y[b], bulletWidth, bulletHeight);
+                if(hit >= 0 && (hitFormation < 0 || formations[f].getSweepTime() < reach)) {
+                    hitFormation = f;
+                    slot = hit;
+                    reach = formations[f].getSweepTime();
+                }
+            }
+            if(shelters.sweep(playerBulletStore.lastX[b], playerBulletStore.lastY[b],
+                    playerBulletStore.x[b], playerBulletStore.y[b],
+                    bulletWidth, bulletHeight, reach) > 0){
+                // A collision has occurred
+                bullet.setInactive();
+                if (listener != null) {
+                    listener.onShelterDamaged();
+                }
+            } else if (slot >= 0) {
+                formations[hitFormation].kill(slot);
+                bullet.setInactive();
+                score = score + POINTS_PER_INVADER;
+                if (listener != null) {
+                    listener.onInvaderDestroyed();
+                }
+
+                if(getAliveCount() == 0){
+                    if(schedule.isEndless()) {
+                        // The next wave follows right away, score and lives are kept
+                        wave++;
+                        prepareLevel();
+                    } else {
+                        updateHighScore();
+                        if (listener != null) {
+                            listener.onGameOver(score, true);
+                        }
+                        paused = true;
+                        score = 0;
+                        lives = LIVES;
+                        prepareLevel();
+                    }
+                }
+            }
+        }
+
+        if(bullet.getImpactPointY() < 0) {
+            bullet.setInactive();
+        }
+
+        time = profiler.lap(PhaseProfiler.INVADER_HITS, time);
+
+        EntityStore invaderBulletStore = invaderBullets.getStore();
+        float[] x = invaderBulletStore.x;
+        float[] y = invaderBulletStore.y;
+        float[] lastX = invaderBulletStore.lastX;
+        float[] lastY = invaderBulletStore.lastY;
+        float[] width = invaderBulletStore.width;
+        float[] height = invaderBulletStore.height;
+
+        // Release the invaders bullets hitting a shelter brick.
+        // The active list is walked backwards as releasing moves its last bullet forward.
+        for(int a = invaderBullets.getActiveCount() - 1; a >= 0; a--){
+            int i = invaderBullets.getActiveSlot(a);
+            if(shelters.sweep(lastX[i], lastY[i], x[i], y[i], width[i], height[i], 1) > 0){
+                // A collision has occurred
+                invaderBullets.release(a);
+                if (listener != null) {
+                    listener.onShelterDamaged();
+                }
+            }
+        }
+
+        time = profiler.lap(PhaseProfiler.SHELTER_HITS, time);
+
+        // check if an invader bullet hit the player ship and resulting game loss, release the
+        // bullets leaving the screen. The ship moves as well, so the bullets are swept relative
+        // to it.
+        Box playerRect = playerShip.getRect();
+        float playerShift = playerShip.getX() - playerShip.getInterpolatedX(0);
+        for(int a = invaderBullets.getActiveCount() - 1; a >= 0; a--){
+            int i = invaderBullets.getActiveSlot(a);
+            narrowPhaseTests++;
+            if(playerRect.sweep(lastX[i] + playerShift, lastY[i], x[i], y[i],
+                    width[i], height[i]) >= 0){
+                invaderBullets.release(a);
+                lives --;
+                if (listener != null) {
+                    listener.onPlayerHit();
+                }
+
+                if(lives == 0){
+                    updateHighScore();
+                    if (listener != null) {
+                        listener.onGameOver(score, false);
+                    }
+
+                    paused = true;
+                    lives = LIVES;
+                    score = 0;
+                    wave = 0;
+                    prepareLevel();
+                    break;
+                }
+            } else if(y[i] + height[i] > screenY) {
+                invaderBullets.release(a);
+            }
+        }
+
+        profiler.lap(PhaseProfiler.PLAYER_HITS, time);
+
+        tick++;
+        if (replay != null) {
+            replay.recordTick(stateHash());
+        }
+    }
+
+    /**
+     * Applies a player command. Commands must only be applied by the thread updating the
+     * simulation, between two ticks.
+     *
+     * @param command   the command, one of the InputQueue command constants
+     * @see             InputQueue#drainTo(GameSimulation)
+     * @see             Replay#recordCommand(int, int)
+     */
+    public void applyCommand(int command) {
+        if (replay != null) {
+            replay.recordCommand(tick, command);
+        }
+
+        switch (command) {
+            case InputQueue.MOVE_LEFT:
+                setPlayerMovement(playerShip.LEFT);
+                break;
+            case InputQueue.MOVE_RIGHT:
+                setPlayerMovement(playerShip.RIGHT);
+                break;
+            case InputQueue.STOP:
+                setPlayerMovement(playerShip.STOPPED);
+                break;
+            case InputQueue.FIRE:
+                firePlayerBullet();
+                break;
+            case InputQueue.TOGGLE_PAUSE:
+                setPaused(!paused);
+                break;
+        }
+    }
+
+    /**
+     * Hashes the state that decides how the game goes on: the score, lives, wave and pause
+     * state, the position of every ship, bullet and invader formation, the invaders alive and
+     * the remaining shelter bricks. Two simulations running the same game have the same hash after
+     * every tick.
+     *
+     * @return  the state hash
+     * @see     Float#floatToIntBits(float)
+     */
+    public int stateHash() {
+        int hash = score;
+        hash = 31 * hash + lives;
+        hash = 31 * hash + wave;
+        hash = 31 * hash + (paused ? 1 : 0);
+        hash = 31 * hash + (int) menaceInterval;
+        hash = 31 * hash + Float.floatToIntBits(playerShip.getX());
+
+        hash = 31 * hash + (bullet.getStatus() ? 1 : 0);
+        if (bullet.getStatus()) {
+            // Where an inactive bullet was left does not matter and is not part of the state
+            hash = 31 * hash + Float.floatToIntBits(playerBulletStore.x[bullet.getSlot()]);
+            hash = 31 * hash + Float.floatToIntBits(playerBulletStore.y[bullet.getSlot()]);
+        }
+
+        for (Formation formation : formations) {
+            hash = 31 * hash + Float.floatToIntBits(formation.getOffsetX());
+            hash = 31 * hash + Float.floatToIntBits(formation.getOffsetY());
+            hash = 31 * hash + Float.floatToIntBits(formation.getVelocityX());
+            for (int i = 0; i < formation.size(); i++) {
+                hash = 31 * hash + (formation.isAlive(i) ? 1 : 0);
+            }
+        }
+
+        EntityStore invaderBulletStore = invaderBullets.getStore();
+        for (int a = 0; a < invaderBullets.getActiveCount(); a++) {
+            int i = invaderBullets.getActiveSlot(a);
+            hash = 31 * hash + Float.floatToIntBits(invaderBulletStore.x[i]);
+            hash = 31 * hash + Float.floatToIntBits(invaderBulletStore.y[i]);
+        }
+
+        for (int i = 0; i < ShelterField.SHELTERS; i++) {
+            long bricks = shelters.getBricks(i);
+            hash = 31 * hash + (int) (bricks ^ (bricks >>> 32));
+        }
+        return hash;
+    }
+
+    /**
+     * Writes the complete state of the game, so a simulation of the same size continues it
+     * exactly where it was after readState(). Nothing is allocated besides the streams buffer,
+     * so this is fast enough to run when the app is sent to the background.
+     *
+     * The binary format is big endian: the magic number and version, screenX, screenY, the
+     * invader rows and columns per formation, the formation count and the invader bullet
+     * capacity as ints and the endless flag as boolean, the pause state as boolean, score, lives
+     * as ints, the menace interval as long, the tick and the wave as ints, then the random
+     * generator state and both shot countdowns of the fire scheduler as longs, the ships x,
+     * last x and movement state, the players bullet as a boolean followed by x, y, last x, last
+     * y and y-velocity as floats if it is active, the active invader bullet count as int
+     * followed by each bullet like the players, for each formation its offset, last offset and
+     * x-velocity as floats followed by its alive invaders as a bitset of longs, and the bricks of
+     * each shelter as long. The high score is not part of the state.
+     *
+     * @param out           the stream to write to, flushed but not closed
+     * @throws IOException  if writing fails
+     * @see                 #readState(InputStream)
+     */
+    public void writeState(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(STATE_MAGIC);
+        data.writeInt(STATE_VERSION);
+        data.writeInt(screenX);
+        data.writeInt(screenY);
+        data.writeInt(invaderRows);
+        data.writeInt(invaderColumns);
+        data.writeInt(formations.length);
+        data.writeInt(maxInvaderBullets);
+        data.writeBoolean(schedule.isEndless());
+
+        data.writeBoolean(paused);
+        data.writeInt(score);
+        data.writeInt(lives);
+        data.writeLong(menaceInterval);
+        data.writeInt(tick);
+        data.writeInt(wave);
+
+        fireScheduler.writeState(data);
+        playerShip.writeState(data);
+        data.writeBoolean(bullet.getStatus());
+        if (bullet.getStatus()) {
+            bullet.writeState(data);
+        }
+        invaderBullets.writeState(data);
+        for (Formation formation : formations) {
+            formation.writeState(data);
+        }
+        shelters.writeState(data);
+        data.flush();
+    }
+
+    /**
+     * Reads a state written by writeState() and continues the game from it. The state must come
+     * from a simulation of the same screen size, wave size and bullet capacity, so states saved
+     * before the screen was rotated are rejected. A replay recording this simulation no longer
+     * matches it afterwards and should be removed.
+     *
+     * @param in            the stream to read from, not closed
+     * @throws IOException  if reading fails or the stream does not hold a state of this
+     *                      simulation. If the failure comes after the header, a new game is
+     *                      prepared, paused.
+     * @see                 #writeState(OutputStream)
+     * @see                 #setReplay(Replay)
+     */
+    public void readState(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != STATE_MAGIC) {
+            throw new IOException("not a game state");
+        }
+        int version = data.readInt();
+        if (version != STATE_VERSION) {
+            throw new IOException("unsupported game state version " + version);
+        }
+        if (data.readInt() != screenX || data.readInt() != screenY
+                || data.readInt() != invaderRows || data.readInt() != invaderColumns
+                || data.readInt() != formations.length || data.readInt() != maxInvaderBullets
+                || data.readBoolean() != schedule.isEndless()) {
+            throw new IOException("game state of a different simulation size");
+        }
+
+        try {
+            paused = data.readBoolean();
+            score = data.readInt();
+            lives = data.readInt();
+            menaceInterval = data.readLong();
+            tick = data.readInt();
+            wave = data.readInt();
+            if (wave < 0) {
+                throw new IOException("invalid wave " + wave);
+            }
+
+            fireScheduler.readState(data);
+            playerShip.readState(data);
+            if (data.readBoolean()) {
+                bullet.readState(data);
+            } else {
+                bullet.setInactive();
+            }
+            invaderBullets.readState(data);
+            for (Formation formation : formations) {
+                formation.readState(data);
+            }
+            numInvaders = schedule.getFormations(wave) * schedule.getRows(wave)
+                    * schedule.getColumns(wave);
+            shelters.readState(data);
+        } catch (IOException e) {
+            paused = true;
+            score = 0;
+            lives = LIVES;
+            wave = 0;
+            prepareLevel();
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the player ships movement state.
+     *
+     * @param state the movement state
+     * @see         PlayerShip#setMovementState(int)
+     */
+    public void setPlayerMovement(int state) {
+        playerShip.setMovementState(state);
+    }
+
+    /**
+     * Fires the players bullet from the middle of the player ship, if it is not already on the
+     * screen.
+     *
+     * @return  <code>true</code> if the bullet was fired
+     *          <code>false</code> else
+     * @see     Bullet#shoot(float, float, int)
+     */
+    public boolean firePlayerBullet() {
+        if (bullet.shoot(playerShip.getX() + playerShip.getLength() / 2,
+                screenY - playerShip.getHeight(), bullet.UP)) {
+            if (listener != null) {
+                listener.onPlayerShot();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the pause state. The simulation must not be updated while paused.
+     *
+     * @return  <code>true</code> if the game is paused
+     *          <code>false</code> else
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pauses or resumes the game.
+     *
+     * @param paused    the new pause state
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Gets and resets the number of exact rectangle intersection tests run since the last call.
+     * This is used to verify the effectiveness of the collision broadphase.
+     *
+     * @return  the number of narrow-phase tests
+     */
+    public int takeNarrowPhaseTests() {
+        int tests = narrowPhaseTests + shelters.takeNarrowPhaseTests();
+        for (Formation formation : formations) {
+            tests += formation.takeNarrowPhaseTests();
+        }
+        narrowPhaseTests = 0;
+        return tests;
+    }
+
+    /**
+     * Gets the seed of the random number generator.
+     *
+     * @return  the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the number of invader rows each formation has room for.
+     *
+     * @return  the row count
+     */
+    public int getInvaderRows() {
+        return invaderRows;
+    }
+
+    /**
+     * Gets the number of invader columns each formation has room for.
+     *
+     * @return  the column count
+     */
+    public int getInvaderColumns() {
+        return invaderColumns;
+    }
+
+    /**
+     * Gets the maximum number of invader bullets on the screen.
+     *
+     * @return  the invader bullet pools capacity
+     */
+    public int getMaxInvaderBullets() {
+        return maxInvaderBullets;
+    }
+
+    /**
+     * Gets the number of ticks run since the simulation was created.
+     *
+     * @return  the tick count
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the profiler timing the phases of update(). It is disabled until enabled explicitly.
+     *
+     * @return  the profiler
+     */
+    public PhaseProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Gets the screens size in x-direction the simulation was created for.
+     *
+     * @return  the screen width
+     */
+    public int getScreenX() {
+        return screenX;
+    }
+
+    /**
+     * Gets the screens size in y-direction the simulation was created for.
+     *
+     * @return  the screen height
+     */
+    public int getScreenY() {
+        return screenY;
+    }
+
+    /**
+     * Gets the player ship.
+     *
+     * @return  the player ship
+     */
+    public PlayerShip getPlayerShip() {
+        return playerShip;
+    }
+
+    /**
+     * Gets the store holding the players single bullet.
+     *
+     * @return  the player bullet store
+     */
+    public EntityStore getPlayerBulletStore() {
+        return playerBulletStore;
+    }
+
+    /**
+     * Gets the pool of invader bullets.
+     *
+     * @return  the invader bullet pool
+     */
+    public BulletPool getInvaderBullets() {
+        return invaderBullets;
+    }
+
+    /**
+     * Gets the number of formations, including those not used by the current wave.
+     *
+     * @return  the formation count
+     */
+    public int getFormationCount() {
+        return formations.length;
+    }
+
+    /**
+     * Gets a formation moving a block of invaders.
+     *
+     * @param index the formations index, between 0 and getFormationCount() - 1
+     * @return      the invader formation
+     */
+    public Formation getFormation(int index) {
+        return formations[index];
+    }
+
+    /**
+     * Gets a single invader.
+     *
+     * @param index the invaders index, between 0 and getMaxInvaders() - 1. The invaders of
+     *              formation f start at f * getInvaderRows() * getInvaderColumns().
+     * @return      the invader
+     */
+    public Invader getInvader(int index) {
+        return invaders[index];
+    }
+
+    /**
+     * Gets the number of invaders the current wave started with.
+     *
+     * @return  the number of invaders
+     */
+    public int getNumInvaders() {
+        return numInvaders;
+    }
+
+    /**
+     * Gets the number of invaders of the largest wave, the size to reserve for drawing them.
+     *
+     * @return  the invader capacity of all formations
+     */
+    public int getMaxInvaders() {
+        return invaders.length;
+    }
+
+    /**
+     * Gets the current wave.
+     *
+     * @return  the waves index, 0 for the first wave
+     */
+    public int getWave() {
+        return wave;
+    }
+
+    /**
+     * Gets the schedule deciding the waves.
+     *
+     * @return  the wave schedule
+     */
+    public WaveSchedule getWaveSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Gets the defensive shelters.
+     *
+     * @return  the shelters
+     */
+    public ShelterField getShelters() {
+        return shelters;
+    }
+
+    /**
+     * Gets the current games score.
+     *
+     * @return  the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the players remaining lives.
+     *
+     * @return  the number of lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Gets the highest score reached so far.
+     *
+     * @return  the high score
+     */
+    public int getHighScore() {
+        return highScore;
+    }
+
+    /**
+     * Sets the high score a new game result has to beat.
+     *
+     * @param highScore the stored high score
+     */
+    public void setHighScore(int highScore) {
+        this.highScore = highScore;
+    }
+
+    /**
+     * Gets the time between two menacing invader sounds. It shrinks every time the invaders
+     * drop down.
+     *
+     * @return  the menace interval in milliseconds
+     */
+    public long getMenaceInterval() {
+        return menaceInterval;
+    }
+}
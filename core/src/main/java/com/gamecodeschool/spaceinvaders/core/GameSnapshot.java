@@ -0,0 +1,394 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+/**
+ * A copy of everything needed to draw one simulation state. The simulation thread captures
+ * snapshots and hands them to the render thread through a TripleBuffer, so drawing never reads
+ * the simulation while it is being updated. Moving objects keep their previous and current
+ * position to be drawn in between.
+ *
+ * @version %I%, %G%
+ * @see     TripleBuffer
+ * @see     GameSimulation
+ */
+public class GameSnapshot {
+
+    /**
+     * The visible objects of one kind, stored in parallel arrays like in EntityStore.
+     *
+     * @version %I%, %G%
+     * @see     EntityStore
+     */
+    public static class Entities {
+
+        private int count;
+        private float[] x;
+        private float[] y;
+        private float[] lastX;
+        private float[] lastY;
+        private float[] width;
+        private float[] height;
+
+        /**
+         * Creates an empty list.
+         *
+         * @param capacity  the number of objects to reserve space for
+         */
+        Entities(int capacity) {
+            allocate(Math.max(1, capacity));
+        }
+
+        /**
+         * Removes all objects.
+         */
+        void clear() {
+            count = 0;
+        }
+
+        /**
+         * Copies a single slot of a store.
+         *
+         * @param store the store holding the object
+         * @param slot  the objects slot
+         */
+        void add(EntityStore store, int slot) {
+            if (count == x.length) {
+                grow();
+            }
+            x[count] = store.x[slot];
+            y[count] = store.y[slot];
+            lastX[count] = store.lastX[slot];
+            lastY[count] = store.lastY[slot];
+            width[count] = store.width[slot];
+            height[count] = store.height[slot];
+            count++;
+        }
+
+        /**
+         * Copies a single invader of a formation.
+         *
+         * @param formation the formation holding the invader
+         * @param slot      the invaders slot
+         */
+        void add(Formation formation, int slot) {
+            if (count == x.length) {
+                grow();
+            }
+            x[count] = formation.getX(slot);
+            y[count] = formation.getY(slot);
+            lastX[count] = formation.getInterpolatedX(slot, 0);
+            lastY[count] = formation.getInterpolatedY(slot, 0);
+            width[count] = formation.getInvaderLength();
+            height[count] = formation.getInvaderHeight();
+            count++;
+        }
+
+        /**
+         * Gets the number of objects.
+         *
+         * @return  the object count
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Gets an objects x-coordinate between its previous and its current position.
+         *
+         * @param index the objects index
+         * @param alpha the fraction of a tick passed since the snapshot, between 0 and 1
+         * @return      the interpolated x-position
+         */
+        public float getInterpolatedX(int index, float alpha) {
+            return lastX[index] + (x[index] - lastX[index]) * alpha;
+        }
+
+        /**
+         * Gets an objects y-coordinate between its previous and its current position.
+         *
+         * @param index the objects index
+         * @param alpha the fraction of a tick passed since the snapshot, between 0 and 1
+         * @return      the interpolated y-position
+         */
+        public float getInterpolatedY(int index, float alpha) {
+            return lastY[index] + (y[index] - lastY[index]) * alpha;
+        }
+
+        /**
+         * Gets an objects size in x-direction.
+         *
+         * @param index the objects index
+         * @return      the width
+         */
+        public float getWidth(int index) {
+            return width[index];
+        }
+
+        /**
+         * Gets an objects size in y-direction.
+         *
+         * @param index the objects index
+         * @return      the height
+         */
+        public float getHeight(int index) {
+            return height[index];
+        }
+
+        private void grow() {
+            float[][] old = {x, y, lastX, lastY, width, height};
+            allocate(x.length * 2);
+            float[][] grown = {x, y, lastX, lastY, width, height};
+            for (int i = 0; i < old.length; i++) {
+                System.arraycopy(old[i], 0, grown[i], 0, count);
+            }
+        }
+
+        private void allocate(int capacity) {
+            x = new float[capacity];
+            y = new float[capacity];
+            lastX = new float[capacity];
+            lastY = new float[capacity];
+            width = new float[capacity];
+            height = new float[capacity];
+        }
+    }
+
+    private final Entities invaders;
+    private final Entities bullets;
+
+    private float playerX;
+    private float playerLastX;
+    private float playerTop;
+    private float playerLength;
+    private float playerHeight;
+
+    private final long[] bricks = new long[ShelterField.SHELTERS];
+    private int shelterVersion;
+
+    private int score;
+    private int lives;
+    private int highScore;
+    private boolean paused;
+    private boolean invaderFrame;
+    private long tickTime;
+    private long inputTime;
+
+    /**
+     * Creates an empty snapshot sized for a simulation.
+     *
+     * @param simulation    the simulation to capture later on
+     */
+    public GameSnapshot(GameSimulation simulation) {
+        invaders = new Entities(simulation.getMaxInvaders());
+        bullets = new Entities(simulation.getPlayerBulletStore().size()
+                + simulation.getInvaderBullets().getStore().size());
+    }
+
+    /**
+     * Copies the current state of a simulation into this snapshot.
+     *
+     * @param simulation    the simulation to capture
+     * @param tickTime      the System.nanoTime() the last tick was due at
+     * @param inputTime     the System.nanoTime() of the last player input applied
+     * @param invaderFrame  the invader animation frame to draw
+     */
+    public void capture(GameSimulation simulation, long tickTime, long inputTime,
+                        boolean invaderFrame) {
+        this.tickTime = tickTime;
+        this.inputTime = inputTime;
+        this.invaderFrame = invaderFrame;
+
+        PlayerShip playerShip = simulation.getPlayerShip();
+        playerX = playerShip.getX();
+        playerLastX = playerShip.getInterpolatedX(0);
+        playerLength = playerShip.getLength();
+        playerHeight = playerShip.getHeight();
+        playerTop = simulation.getScreenY() - playerHeight;
+
+        invaders.clear();
+        for (int f = 0; f < simulation.getFormationCount(); f++) {
+            Formation formation = simulation.getFormation(f);
+            int columns = formation.getColumns();
+            for (int row = 0; row <= formation.getBottomRow(); row++) {
+                if (formation.getAliveInRow(row) == 0) {
+                    continue;
+                }
+                for (int column = formation.getLeftColumn();
+                     column <= formation.getRightColumn(); column++) {
+                    int i = row * columns + column;
+                    if (formation.isAlive(i)) {
+                        invaders.add(formation, i);
+                    }
+                }
+            }
+        }
+
+        bullets.clear();
+        EntityStore playerBullets = simulation.getPlayerBulletStore();
+        for (int i = 0; i < playerBullets.size(); i++) {
+            if (playerBullets.alive[i]) {
+                bullets.add(playerBullets, i);
+            }
+        }
+        BulletPool invaderBullets = simulation.getInvaderBullets();
+        for (int a = 0; a < invaderBullets.getActiveCount(); a++) {
+            bullets.add(invaderBullets.getStore(), invaderBullets.getActiveSlot(a));
+        }
+
+        ShelterField shelters = simulation.getShelters();
+        for (int i = 0; i < ShelterField.SHELTERS; i++) {
+            bricks[i] = shelters.getBricks(i);
+        }
+        shelterVersion = shelters.getVersion();
+
+        score = simulation.getScore();
+        lives = simulation.getLives();
+        highScore = simulation.getHighScore();
+        paused = simulation.isPaused();
+    }
+
+    /**
+     * Gets the fraction of a tick passed since the snapshots last tick, used to draw moving
+     * objects between their previous and their current position.
+     *
+     * @param now   the current System.nanoTime()
+     * @return      the fraction, clamped between 0 and 1
+     */
+    public float getAlpha(long now) {
+        float alpha = (float) (now - tickTime) / GameSimulation.NANOS_PER_TICK;
+        return Math.max(0, Math.min(1, alpha));
+    }
+
+    /**
+     * Gets the visible invaders.
+     *
+     * @return  the invaders
+     */
+    public Entities getInvaders() {
+        return invaders;
+    }
+
+    /**
+     * Gets the active bullets of the player and the invaders.
+     *
+     * @return  the bullets
+     */
+    public Entities getBullets() {
+        return bullets;
+    }
+
+    /**
+     * Gets the player ships x-coordinate between its previous and its current position.
+     *
+     * @param alpha the fraction of a tick passed since the snapshot, between 0 and 1
+     * @return      the interpolated x-position
+     */
+    public float getPlayerX(float alpha) {
+        return playerLastX + (playerX - playerLastX) * alpha;
+    }
+
+    /**
+     * Gets the player ships top edge.
+     *
+     * @return  the ships y-position
+     */
+    public float getPlayerTop() {
+        return playerTop;
+    }
+
+    /**
+     * Gets the player ships size in x-direction.
+     *
+     * @return  the ships length
+     */
+    public float getPlayerLength() {
+        return playerLength;
+    }
+
+    /**
+     * Gets the player ships size in y-direction.
+     *
+     * @return  the ships height
+     */
+    public float getPlayerHeight() {
+        return playerHeight;
+    }
+
+    /**
+     * Gets the bitset of a single shelter's remaining bricks.
+     *
+     * @param shelterNumber the shelter number
+     * @return              the shelters bricks
+     * @see                 ShelterField#getBricks(int)
+     */
+    public long getBricks(int shelterNumber) {
+        return bricks[shelterNumber];
+    }
+
+    /**
+     * Gets the brick version the shelters had when captured.
+     *
+     * @return  the brick version
+     * @see     ShelterField#getVersion()
+     */
+    public int getShelterVersion() {
+        return shelterVersion;
+    }
+
+    /**
+     * Gets the players score.
+     *
+     * @return  the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the players remaining lives.
+     *
+     * @return  the lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Gets the high score.
+     *
+     * @return  the high score
+     */
+    public int getHighScore() {
+        return highScore;
+    }
+
+    /**
+     * Gets the games pause state.
+     *
+     * @return  <code>true</code> if the game was paused
+     *          <code>false</code> else
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Gets the time of the last player input the captured state reflects. A renderer compares
+     * it with the time the state reaches the screen to measure the input latency.
+     *
+     * @return  the System.nanoTime() of the last input, 0 if there was none
+     * @see     InputQueue#getLastInputTime()
+     */
+    public long getInputTime() {
+        return inputTime;
+    }
+
+    /**
+     * Gets the invader animation frame to draw.
+     *
+     * @return  <code>true</code> for the first frame
+     *          <code>false</code> for the second frame
+     */
+    public boolean getInvaderFrame() {
+        return invaderFrame;
+    }
+}
@@ -0,0 +1,154 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+/**
+ * Counts durations in a fixed number of buckets, in the manner of an HDR histogram. Values below
+ * 2 * SUB_BUCKETS are counted exactly, above that every power of two is split into SUB_BUCKETS
+ * linear buckets, so any value is reported within 1 / SUB_BUCKETS of its true size. The bucket
+ * array covers all positive longs and is allocated once; recording allocates nothing.
+ *
+ * Written by one thread only. Other threads may read percentiles at any time but might see
+ * the counts slightly out of sync.
+ *
+ * @version %I%, %G%
+ * @see     PhaseProfiler
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Number of linear buckets each power of two is split into.
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of buckets covering all positive longs.
+     */
+    public static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private volatile long count;
+    private volatile long max;
+
+    /**
+     * Counts a value.
+     *
+     * @param value the value, negative values are counted as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(value)]++;
+        count++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Forgets all values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        max = 0;
+    }
+
+    /**
+     * Gets the number of values counted.
+     *
+     * @return  the value count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the largest value counted.
+     *
+     * @return  the maximum, 0 if nothing was counted
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the value the given percentage of all values is less than or equal to.
+     *
+     * @param percentile    the percentage, between 0 and 100
+     * @return              the highest value of the bucket reaching the percentage, at most
+     *                      the maximum; 0 if nothing was counted
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = count;
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(getBucketHighest(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the number of values counted in a bucket.
+     *
+     * @param bucket    the bucket index, between 0 and BUCKETS - 1
+     * @return          the buckets count
+     */
+    public long getBucketCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Gets the smallest value counted in a bucket.
+     *
+     * @param bucket    the bucket index, between 0 and BUCKETS - 1
+     * @return          the buckets lower bound
+     */
+    public static long getBucketLowest(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return top << shift;
+    }
+
+    /**
+     * Gets the largest value counted in a bucket.
+     *
+     * @param bucket    the bucket index, between 0 and BUCKETS - 1
+     * @return          the buckets upper bound
+     */
+    public static long getBucketHighest(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return getBucketLowest(bucket) + (1L << shift) - 1;
+    }
+
+    /**
+     * Finds the bucket a value is counted in.
+     *
+     * @param value the value, not negative
+     * @return      the bucket index
+     */
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+}
@@ -0,0 +1,132 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes timestamped player commands from the UI thread to the simulation thread without
+ * locking. A ring buffer of fixed capacity with exactly one producer and one consumer; each side
+ * only writes its own index, so an ordered store of that index is all the handover needs.
+ * Commands are applied in the order they were offered.
+ *
+ * @version %I%, %G%
+ * @see     GameSimulation
+ */
+public class InputQueue {
+
+    /**
+     * Returned by poll() when the queue is empty.
+     */
+    public static final int NONE = 0;
+
+    public static final int MOVE_LEFT = 1;
+    public static final int MOVE_RIGHT = 2;
+    public static final int STOP = 3;
+    public static final int FIRE = 4;
+    public static final int TOGGLE_PAUSE = 5;
+
+    private final int[] commands;
+    private final long[] times;
+    private final int mask;
+
+    // Next slot to read, only written by the consumer
+    private final AtomicLong head = new AtomicLong();
+
+    // Next slot to write, only written by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    // Producer side count of commands that did not fit
+    private volatile int dropped;
+
+    // Consumer side time of the last command polled
+    private long lastInputTime;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity  the least number of commands the queue holds, rounded up to a power of 2
+     */
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        commands = new int[size];
+        times = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Adds a command to the end of the queue. Only called by the producer.
+     *
+     * @param command   the command, one of MOVE_LEFT, MOVE_RIGHT, STOP, FIRE or TOGGLE_PAUSE
+     * @param time      the System.nanoTime() the player gave the command at
+     * @return          <code>true</code> if the command was added
+     *                  <code>false</code> if the queue is full and the command was dropped
+     * @see             AtomicLong#lazySet(long)
+     */
+    public boolean offer(int command, long time) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped++;
+            return false;
+        }
+
+        int slot = (int) t & mask;
+        commands[slot] = command;
+        times[slot] = time;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest command off the queue. Only called by the consumer.
+     *
+     * @return  the command, NONE if the queue is empty
+     * @see     #getLastInputTime()
+     */
+    public int poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return NONE;
+        }
+
+        int slot = (int) h & mask;
+        int command = commands[slot];
+        lastInputTime = times[slot];
+        head.lazySet(h + 1);
+        return command;
+    }
+
+    /**
+     * Applies all queued commands to a simulation in order. Only called by the consumer, which
+     * must be the thread updating the simulation.
+     *
+     * @param simulation    the simulation to apply the commands to
+     * @return              the number of commands applied
+     * @see                 GameSimulation#applyCommand(int)
+     */
+    public int drainTo(GameSimulation simulation) {
+        int applied = 0;
+
+        for (int command = poll(); command != NONE; command = poll()) {
+            simulation.applyCommand(command);
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Gets the time of the last command taken off the queue. Only called by the consumer.
+     *
+     * @return  the System.nanoTime() of the last polled command, 0 if none was polled yet
+     */
+    public long getLastInputTime() {
+        return lastInputTime;
+    }
+
+    /**
+     * Gets the number of commands dropped because the queue was full.
+     *
+     * @return  the dropped command count
+     */
+    public int getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,144 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+/**
+ * Represents a single invader. Includes the logic to place the invader and to determine if the
+ * invader should shoot a bullet. The invaders state is kept in a slot of a Formation, which
+ * moves all invaders of a wave together, this class is only a view on that slot.
+ *
+ * @version %I%, %G%
+ * @see     Formation
+ */
+public class Invader {
+
+    private final Formation formation;
+    private final int slot;
+
+    /**
+     * Creates an invader bound to the next slot of the given formation. The invader is not in
+     * the game until it is spawned.
+     *
+     * @param formation the formation holding the invaders state
+     * @see             Formation#add()
+     */
+    public Invader(Formation formation) {
+
+        this.formation = formation;
+        slot = formation.add();
+    }
+
+    /**
+     * Puts the invader into the game at its cell of the formations grid. The formation must be
+     * reset once all invaders of a wave are spawned.
+     *
+     * @param row       the invaders row index
+     * @param column    the invaders column index
+     * @see             Formation#reset(float, float, float)
+     */
+    public void spawn(int row, int column) {
+        formation.spawn(slot, row, column);
+    }
+
+    /**
+     * Gets the slot holding the invaders state.
+     *
+     * @return  the invaders slot index
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Sets the invader invisible.
+     * This is used to flag the invader as hit by the player and therefore as no longer in the game.
+     *
+     * @see Formation#kill(int)
+     */
+    public void setInvisible() {
+        formation.kill(slot);
+    }
+
+    /**
+     * Gets the invaders visibility.
+     * Is used to determine if the invader is still in the game.
+     *
+     * @return  <code>true</code> if the invader is visible
+     *          <code>false</code> else
+     */
+    public boolean getVisibility() {
+        return formation.isAlive(slot);
+    }
+
+    /**
+     * Gets the invaders x-position.
+     *
+     * @return  the x-position
+     */
+    public float getX() {
+        return formation.getX(slot);
+    }
+
+    /**
+     * Gets the invaders y-position.
+     *
+     * @return  the y-position
+     */
+    public float getY() {
+        return formation.getY(slot);
+    }
+
+    /**
+     * Gets the invaders x-position between the previous and the current update.
+     *
+     * @param alpha the fraction of a tick passed since the last update, between 0 and 1
+     * @return      the interpolated x-position
+     */
+    public float getInterpolatedX(float alpha) {
+        return formation.getInterpolatedX(slot, alpha);
+    }
+
+    /**
+     * Gets the invaders y-position between the previous and the current update.
+     *
+     * @param alpha the fraction of a tick passed since the last update, between 0 and 1
+     * @return      the interpolated y-position
+     */
+    public float getInterpolatedY(float alpha) {
+        return formation.getInterpolatedY(slot, alpha);
+    }
+
+    /**
+     * Gets the invaders size in x-direction.
+     *
+     * @return  the invaders length
+     */
+    public float getLength() {
+        return formation.getInvaderLength();
+    }
+
+    /**
+     * Gets the invaders size in y-direction.
+     *
+     * @return  the invaders height
+     */
+    public float getHeight() {
+        return formation.getInvaderHeight();
+    }
+
+    /**
+     * Determines if the invader is above the player ship, i.e. one of the ships edges lies
+     * within the invaders extent in x-direction. Invaders above the ship shoot more often.
+     *
+     * @param playerShipX       the player ship's x-position
+     * @param playerShipLength  the player ship's length in x-direction
+     * @return                  <code>true</code> if the invader is above the player ship
+     *                          <code>false</code> else
+     * @see                     FireScheduler#shoots(boolean)
+     */
+    public boolean isAbove(float playerShipX, float playerShipLength) {
+        float x = formation.getX(slot);
+        float length = formation.getInvaderLength();
+
+        return (playerShipX+playerShipLength > x && playerShipX+playerShipLength < x+length) ||
+                (playerShipX > x && playerShipX < x+length);
+    }
+}
@@ -0,0 +1,170 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Times the phases of the simulation and the rendering threads into one Histogram per phase.
+ * Timing a phase takes a start time and laps it at the end of each phase:
+ * <pre>
+ *     long time = profiler.start();
+ *     ...
+ *     time = profiler.lap(PhaseProfiler.INVADERS, time);
+ * </pre>
+ * While disabled start() and lap() do nothing but return 0, so a disabled profiler costs a field
+ * read per phase and no clock reads. Recording allocates nothing.
+ *
+ * Each phase must be lapped by one thread only. Enabling and disabling may happen on any thread;
+ * enabling takes effect at the next start(), disabling at the next lap().
+ *
+ * @version %I%, %G%
+ * @see     Histogram
+ */
+public class PhaseProfiler {
+
+    // Simulation thread
+    public static final int INPUT = 0;
+    public static final int INVADERS = 1;
+    public static final int BULLETS = 2;
+    public static final int INVADER_HITS = 3;
+    public static final int SHELTER_HITS = 4;
+    public static final int PLAYER_HITS = 5;
+    public static final int SNAPSHOT = 6;
+
+    // Render thread
+    public static final int LOCK = 7;
+    public static final int DRAW = 8;
+    public static final int POST = 9;
+    public static final int FRAME = 10;
+
+    /**
+     * Number of phases timed.
+     */
+    public static final int PHASES = 11;
+
+    private static final String[] NAMES = {
+            "input", "invaders", "bullets", "invader hits", "shelter hits", "player hits",
+            "snapshot", "lock", "draw", "post", "frame"
+    };
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private final Histogram[] histograms = new Histogram[PHASES];
+
+    private volatile boolean enabled;
+
+    /**
+     * Creates a disabled profiler.
+     */
+    public PhaseProfiler() {
+        for (int i = 0; i < PHASES; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Enables or disables timing.
+     *
+     * @param enabled   <code>true</code> to time phases
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets whether phases are timed.
+     *
+     * @return  <code>true</code> if enabled
+     *          <code>false</code> else
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts timing a sequence of phases.
+     *
+     * @return  the current System.nanoTime(), 0 if disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time since the start of a phase and starts the next one.
+     *
+     * @param phase the phase ending now
+     * @param start the phases start time, as returned by start() or the previous lap()
+     * @return      the current System.nanoTime() to start the next phase with, 0 if the
+     *              sequence was not timed or the profiler was disabled since
+     */
+    public long lap(int phase, long start) {
+        if (start == 0 || !enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        histograms[phase].record(now - start);
+        return now;
+    }
+
+    /**
+     * Forgets all times. Must not be called while a timed thread is running.
+     */
+    public void reset() {
+        for (int i = 0; i < PHASES; i++) {
+            histograms[i].reset();
+        }
+    }
+
+    /**
+     * Gets the histogram of a phase.
+     *
+     * @param phase the phase
+     * @return      the phases histogram
+     */
+    public Histogram getHistogram(int phase) {
+        return histograms[phase];
+    }
+
+    /**
+     * Gets the name of a phase.
+     *
+     * @param phase the phase
+     * @return      the phases name
+     */
+    public static String getName(int phase) {
+        return NAMES[phase];
+    }
+
+    /**
+     * Writes all phases with samples as text: a summary line with the count, p50, p95, p99 and
+     * max in nanoseconds, followed by the lower bound and count of each non-empty bucket.
+     *
+     * @param out           the writer to write to, not closed
+     * @throws IOException  if writing fails
+     * @see                 Histogram#getValueAtPercentile(double)
+     * @see                 Histogram#getBucketLowest(int)
+     */
+    public void writeTo(Writer out) throws IOException {
+        for (int phase = 0; phase < PHASES; phase++) {
+            Histogram histogram = histograms[phase];
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+
+            out.write("# " + NAMES[phase] + " count=" + histogram.getCount());
+            for (double percentile : PERCENTILES) {
+                out.write(" p" + (int) percentile + "="
+                        + histogram.getValueAtPercentile(percentile));
+            }
+            out.write(" max=" + histogram.getMax() + "\n");
+
+            for (int bucket = 0; bucket < Histogram.BUCKETS; bucket++) {
+                long bucketCount = histogram.getBucketCount(bucket);
+                if (bucketCount > 0) {
+                    out.write(Histogram.getBucketLowest(bucket) + " " + bucketCount + "\n");
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,8 @@
-package com.gamecodeschool.spaceinvaders;
+package com.gamecodeschool.spaceinvaders.core;
 
-import android.content.Context;
-import android.content.res.Resources;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.RectF;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 
 /**
  * Representation of the players ship. Includes all necessary functionality to move the ship
@@ -18,13 +16,14 @@ public class PlayerShip {
     public final int LEFT = 1;
     public final int RIGHT = 2;
 
-    private RectF rect;
+    private Box rect;
     private float x;
+    private float lastX;
     private float y;
     private float length;
     private float height;
 
-    private Bitmap bitmap;
+    private final int screenX;
 
     private int shipMoving = STOPPED;
     private float shipSpeed;
@@ -32,48 +31,40 @@ public class PlayerShip {
     /**
      * Creates the player ship and sets its bounding box for hit detection.
      *
-     * @param context   the applications instance state
      * @param screenX   the screens size in x-direction
      * @param screenY   the screens size in y-direction
-     * @see             Context
-     * @see             RectF
-     * @see             BitmapFactory#decodeResource(Resources, int)
-     * @see             Bitmap#createScaledBitmap(Bitmap, int, int, boolean)
+     * @see             Box
      */
-    public PlayerShip(Context context, int screenX, int screenY){
+    public PlayerShip(int screenX, int screenY){
 
-        rect = new RectF();
+        this.screenX = screenX;
+        rect = new Box();
         length = screenX/10;
         height = screenY/10;
-
-        x = (screenX-length) / 2;
         y = screenY - height;
 
-        bitmap = BitmapFactory.decodeResource(context.getResources(), R.drawable.playership);
-        bitmap = Bitmap.createScaledBitmap(bitmap,
-                (int) (length),
-                (int) (height),
-                false);
-
         shipSpeed = 350;
+
+        reset();
     }
 
     /**
-     * Gets the ships surrounding rectangle, its bounding box.
-     *
-     * @return  the ships surrounding rectangle
+     * Puts the ship back to its starting position in the middle of the screen and stops it.
      */
-    public RectF getRect(){
-        return rect;
+    public void reset() {
+        x = (screenX-length) / 2;
+        lastX = x;
+        shipMoving = STOPPED;
+        rect.set(x, y, x + length, y + height);
     }
 
     /**
-     * Gets the ships bitmap.
+     * Gets the ships surrounding rectangle, its bounding box.
      *
-     * @return  the bitmap
+     * @return  the ships surrounding rectangle
      */
-    public Bitmap getBitmap(){
-        return bitmap;
+    public Box getRect(){
+        return rect;
     }
 
     /**
@@ -85,6 +76,16 @@ public class PlayerShip {
         return x;
     }
 
+    /**
+     * Gets the ships x-coordinate between the previous and the current update.
+     *
+     * @param alpha the fraction of a tick passed since the last update, between 0 and 1
+     * @return      the interpolated x-position
+     */
+    public float getInterpolatedX(float alpha){
+        return lastX + (x - lastX) * alpha;
+    }
+
     /**
      * Gets the ships size in x-direction.
      *
@@ -122,6 +123,8 @@ public class PlayerShip {
      * @param fps   the time passed since the last update
      */
     public void update(long fps){
+        lastX = x;
+
         float nextPosition = -1;
         if(shipMoving == LEFT){
             nextPosition = x - shipSpeed / fps;
@@ -140,4 +143,29 @@ public class PlayerShip {
         rect.right = x + length;
 
     }
+
+    /**
+     * Writes the ships position and movement state.
+     *
+     * @param out           the stream to write to
+     * @throws IOException  if writing fails
+     */
+    void writeState(DataOutputStream out) throws IOException {
+        out.writeFloat(x);
+        out.writeFloat(lastX);
+        out.writeByte(shipMoving);
+    }
+
+    /**
+     * Reads a state written by writeState() and moves the bounding box along.
+     *
+     * @param in            the stream to read from
+     * @throws IOException  if reading fails
+     */
+    void readState(DataInputStream in) throws IOException {
+        x = in.readFloat();
+        lastX = in.readFloat();
+        shipMoving = in.readByte();
+        rect.set(x, y, x + length, y + height);
+    }
 }
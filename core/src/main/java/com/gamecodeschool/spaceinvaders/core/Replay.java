@@ -0,0 +1,305 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Records a game so it can be run again exactly: the simulations size and seed, every player
+ * command together with the tick it was applied before, and the state hash after every tick.
+ *
+ * The recording has a fixed size, allocated up front, so recording never allocates on the
+ * simulation thread. It covers the first MAX_TICKS ticks of a game and stops earlier if more
+ * than MAX_COMMANDS commands are applied. Everything after that is not recorded, so the replay
+ * stays a valid prefix of the game.
+ *
+ * The binary format is big endian: the magic number and version, screenX, screenY, the invader
+ * rows and columns and the invader bullet capacity as ints, the endless schedule flag as
+ * boolean, the seed as long, the command count
+ * as int followed by each command as the tick difference to the previous command in a variable
+ * length int and the command in a byte, then the tick count as int followed by the state hash of
+ * each tick as int.
+ *
+ * @version %I%, %G%
+ * @see     GameSimulation#setReplay(Replay)
+ * @see     GameSimulation#stateHash()
+ */
+public class Replay {
+
+    private static final int MAGIC = 0x53495250;
+
+    // Raised whenever the same seed and commands would play a different game
+    private static final int VERSION = 6;
+
+    /**
+     * The number of ticks recorded at most, ten minutes of play.
+     */
+    public static final int MAX_TICKS = 10 * 60 * (int) GameSimulation.TICKS_PER_SECOND;
+
+    /**
+     * The number of commands recorded at most.
+     */
+    public static final int MAX_COMMANDS = 8192;
+
+    private final int screenX;
+    private final int screenY;
+    private final int invaderRows;
+    private final int invaderColumns;
+    private final int maxInvaderBullets;
+    private final boolean endless;
+    private final long seed;
+
+    private final int[] commandTicks = new int[MAX_COMMANDS];
+    private final byte[] commands = new byte[MAX_COMMANDS];
+    private int commandCount;
+
+    private final int[] hashes = new int[MAX_TICKS];
+    private int tickCount;
+
+    // Set once a buffer ran out, nothing is recorded after
+    private boolean full;
+
+    /**
+     * Creates an empty replay of a simulation that has not run any tick yet.
+     *
+     * @param simulation    the simulation to record
+     * @throws IllegalStateException    if the simulation already ran
+     */
+    public Replay(GameSimulation simulation) {
+        this(simulation.getScreenX(), simulation.getScreenY(), simulation.getInvaderRows(),
+                simulation.getInvaderColumns(), simulation.getMaxInvaderBullets(),
+                simulation.getWaveSchedule().isEndless(), simulation.getSeed());
+        if (simulation.getTick() != 0) {
+            throw new IllegalStateException("simulation already ran " + simulation.getTick()
+                    + " ticks");
+        }
+    }
+
+    private Replay(int screenX, int screenY, int invaderRows, int invaderColumns,
+                   int maxInvaderBullets, boolean endless, long seed) {
+        this.screenX = screenX;
+        this.screenY = screenY;
+        this.invaderRows = invaderRows;
+        this.invaderColumns = invaderColumns;
+        this.maxInvaderBullets = maxInvaderBullets;
+        this.endless = endless;
+        this.seed = seed;
+    }
+
+    /**
+     * Creates a new simulation set up like the recorded one.
+     *
+     * @return  the simulation, paused and before its first tick
+     */
+    public GameSimulation createSimulation() {
+        WaveSchedule schedule = endless ? WaveSchedule.endless()
+                : WaveSchedule.classic(invaderRows, invaderColumns);
+        return new GameSimulation(screenX, screenY, schedule, maxInvaderBullets, seed);
+    }
+
+    /**
+     * Adds a command applied before a tick. If there is no room for it, the recording stops
+     * before that tick.
+     *
+     * @param tick      the number of ticks run before the command
+     * @param command   the command
+     */
+    void recordCommand(int tick, int command) {
+        if (full) {
+            return;
+        }
+        if (commandCount == MAX_COMMANDS) {
+            full = true;
+            return;
+        }
+        commandTicks[commandCount] = tick;
+        commands[commandCount] = (byte) command;
+        commandCount++;
+    }
+
+    /**
+     * Adds the state hash after the next tick, unless the recording stopped.
+     *
+     * @param hash  the state hash
+     */
+    void recordTick(int hash) {
+        if (full) {
+            return;
+        }
+        if (tickCount == MAX_TICKS) {
+            full = true;
+            return;
+        }
+        hashes[tickCount] = hash;
+        tickCount++;
+    }
+
+    /**
+     * Tests if the recording stopped because it ran out of room.
+     *
+     * @return  <code>true</code> if later ticks and commands are no longer recorded
+     *          <code>false</code> else
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Gets the number of commands recorded.
+     *
+     * @return  the command count
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Gets the tick a command was applied before.
+     *
+     * @param index the commands index
+     * @return      the number of ticks run before the command
+     */
+    public int getCommandTick(int index) {
+        return commandTicks[index];
+    }
+
+    /**
+     * Gets a recorded command.
+     *
+     * @param index the commands index
+     * @return      the command
+     */
+    public int getCommand(int index) {
+        return commands[index];
+    }
+
+    /**
+     * Gets the number of ticks recorded.
+     *
+     * @return  the tick count
+     */
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Gets the state hash after a tick.
+     *
+     * @param tick  the ticks index
+     * @return      the state hash
+     */
+    public int getHash(int tick) {
+        return hashes[tick];
+    }
+
+    /**
+     * Writes this replay in the binary format.
+     *
+     * @param out           the stream to write to, flushed but not closed
+     * @throws IOException  if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(screenX);
+        data.writeInt(screenY);
+        data.writeInt(invaderRows);
+        data.writeInt(invaderColumns);
+        data.writeInt(maxInvaderBullets);
+        data.writeBoolean(endless);
+        data.writeLong(seed);
+
+        data.writeInt(commandCount);
+        int previousTick = 0;
+        for (int i = 0; i < commandCount; i++) {
+            writeVarInt(data, commandTicks[i] - previousTick);
+            data.writeByte(commands[i]);
+            previousTick = commandTicks[i];
+        }
+
+        data.writeInt(tickCount);
+        for (int i = 0; i < tickCount; i++) {
+            data.writeInt(hashes[i]);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a replay in the binary format.
+     *
+     * @param in            the stream to read from, not closed
+     * @return              the replay
+     * @throws IOException  if reading fails or the stream does not hold a replay
+     */
+    public static Replay readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("not a replay");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported replay version " + version);
+        }
+
+        Replay replay = new Replay(data.readInt(), data.readInt(), data.readInt(),
+                data.readInt(), data.readInt(), data.readBoolean(), data.readLong());
+
+        int commandCount = data.readInt();
+        if (commandCount < 0 || commandCount > MAX_COMMANDS) {
+            throw new IOException("invalid command count " + commandCount);
+        }
+        int tick = 0;
+        for (int i = 0; i < commandCount; i++) {
+            tick += readVarInt(data);
+            replay.recordCommand(tick, data.readByte());
+        }
+
+        int tickCount = data.readInt();
+        if (tickCount < 0 || tickCount > MAX_TICKS) {
+            throw new IOException("invalid tick count " + tickCount);
+        }
+        for (int i = 0; i < tickCount; i++) {
+            replay.recordTick(data.readInt());
+        }
+        return replay;
+    }
+
+    /**
+     * Writes a non-negative int in seven bit groups, lowest first, the high bit of each byte
+     * flagging that another one follows.
+     *
+     * @param out           the stream to write to
+     * @param value         the value, not negative
+     * @throws IOException  if writing fails
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads an int written by writeVarInt().
+     *
+     * @param in            the stream to read from
+     * @return              the value
+     * @throws IOException  if reading fails
+     */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Counts what happened in the games played: the high score, the games played and won, the
+ * scores of the last games, the shots fired and hit and the time played. Recording never
+ * allocates, so it can run on the simulation thread.
+ *
+ * The binary format is big endian: the magic number and version, the high score, games played
+ * and games won as ints, the shots fired, shots hit and ticks played as longs, then the number
+ * of recent scores as int followed by each score as int, oldest first.
+ *
+ * @version %I%, %G%
+ * @see     GameListener
+ */
+public class SessionStats {
+
+    /**
+     * The number of game scores kept, older ones are dropped.
+     */
+    public static final int RECENT_SCORES = 16;
+
+    private static final int MAGIC = 0x53495353;
+
+    private static final int VERSION = 1;
+
+    private int highScore;
+    private int games;
+    private int wins;
+    private long shots;
+    private long hits;
+    private long ticks;
+
+    // Ring of the last game scores, numScores counts all games ever recorded into it
+    private final int[] scores = new int[RECENT_SCORES];
+    private int numScores;
+
+    /**
+     * Records a shot fired by the player.
+     */
+    public void recordShot() {
+        shots++;
+    }
+
+    /**
+     * Records a shot of the player destroying an invader.
+     */
+    public void recordHit() {
+        hits++;
+    }
+
+    /**
+     * Records time played.
+     *
+     * @param ticks the number of simulation ticks played
+     */
+    public void recordTicks(int ticks) {
+        this.ticks += ticks;
+    }
+
+    /**
+     * Records the end of a game. Its score counts toward the high score whether the game was
+     * won or lost, as in the simulation.
+     *
+     * @param score the games final score
+     * @param won   <code>true</code> if the wave was cleared
+     *              <code>false</code> if the player lost
+     * @see         GameSimulation#getHighScore()
+     */
+    public void recordGame(int score, boolean won) {
+        games++;
+        if (won) {
+            wins++;
+        }
+        if (score > highScore) {
+            highScore = score;
+        }
+        addScore(score);
+    }
+
+    private void addScore(int score) {
+        scores[numScores % RECENT_SCORES] = score;
+        numScores++;
+    }
+
+    /**
+     * Sets these stats to the values of other stats.
+     *
+     * @param other the stats to copy
+     */
+    public void copyFrom(SessionStats other) {
+        highScore = other.highScore;
+        games = other.games;
+        wins = other.wins;
+        shots = other.shots;
+        hits = other.hits;
+        ticks = other.ticks;
+        System.arraycopy(other.scores, 0, scores, 0, RECENT_SCORES);
+        numScores = other.numScores;
+    }
+
+    /**
+     * Adds the stats of later games to these stats. The recent scores of the other stats follow
+     * the ones of these stats.
+     *
+     * @param other the stats to add
+     */
+    public void add(SessionStats other) {
+        highScore = Math.max(highScore, other.highScore);
+        games += other.games;
+        wins += other.wins;
+        shots += other.shots;
+        hits += other.hits;
+        ticks += other.ticks;
+        for (int i = 0; i < other.getRecentScoreCount(); i++) {
+            addScore(other.getRecentScore(i));
+        }
+    }
+
+    /**
+     * Gets the highest score of all games.
+     *
+     * @return  the high score
+     */
+    public int getHighScore() {
+        return highScore;
+    }
+
+    /**
+     * Gets the number of games played to the end.
+     *
+     * @return  the game count
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of games in which the wave was cleared.
+     *
+     * @return  the won game count
+     */
+    public int getWins() {
+        return wins;
+    }
+
+    /**
+     * Gets the number of shots fired by the player.
+     *
+     * @return  the shot count
+     */
+    public long getShots() {
+        return shots;
+    }
+
+    /**
+     * Gets the number of shots destroying an invader.
+     *
+     * @return  the hit count
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the share of shots destroying an invader.
+     *
+     * @return  the accuracy from 0 to 1, 0 if no shot was fired
+     */
+    public float getAccuracy() {
+        return shots == 0 ? 0 : (float) hits / shots;
+    }
+
+    /**
+     * Gets the time played, not counting pauses.
+     *
+     * @return  the play time in milliseconds
+     */
+    public long getPlayMillis() {
+        return ticks * 1000 / GameSimulation.TICKS_PER_SECOND;
+    }
+
+    /**
+     * Gets the number of recent game scores kept.
+     *
+     * @return  the recent score count, at most RECENT_SCORES
+     */
+    public int getRecentScoreCount() {
+        return Math.min(numScores, RECENT_SCORES);
+    }
+
+    /**
+     * Gets a recent game score.
+     *
+     * @param index the scores index, 0 is the oldest score kept
+     * @return      the score
+     */
+    public int getRecentScore(int index) {
+        int first = numScores - getRecentScoreCount();
+        return scores[(first + index) % RECENT_SCORES];
+    }
+
+    /**
+     * Writes these stats in the binary format.
+     *
+     * @param out           the stream to write to, flushed but not closed
+     * @throws IOException  if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(highScore);
+        data.writeInt(games);
+        data.writeInt(wins);
+        data.writeLong(shots);
+        data.writeLong(hits);
+        data.writeLong(ticks);
+
+        int count = getRecentScoreCount();
+        data.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            data.writeInt(getRecentScore(i));
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads stats in the binary format.
+     *
+     * @param in            the stream to read from, not closed
+     * @return              the stats
+     * @throws IOException  if reading fails or the stream does not hold stats
+     */
+    public static SessionStats readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("not session stats");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported session stats version " + version);
+        }
+
+        SessionStats stats = new SessionStats();
+        stats.highScore = data.readInt();
+        stats.games = data.readInt();
+        stats.wins = data.readInt();
+        stats.shots = data.readLong();
+        stats.hits = data.readLong();
+        stats.ticks = data.readLong();
+
+        int count = data.readInt();
+        if (count < 0 || count > RECENT_SCORES) {
+            throw new IOException("invalid recent score count " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            stats.addScore(data.readInt());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,237 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Represents all defensive shelters placed in front of the player ship. Each shelter is a regular
+ * grid of bricks and stored as a single bitset, one bit per brick. A set bit marks a brick that
+ * is still in the game, bit index = row * COLUMNS + column.
+ *
+ * @version %I%, %G%
+ */
+public class ShelterField {
+
+    public static final int SHELTERS = 4;
+    public static final int COLUMNS = 10;
+    public static final int ROWS = 5;
+
+    private static final long ALL_BRICKS = (1L << (COLUMNS * ROWS)) - 1;
+
+    // Bullets can slip through this padding.
+    // Set padding to zero to remove this behavior.
+    private static final int BRICK_PADDING = 1;
+
+    private final long[] bricks = new long[SHELTERS];
+
+    private final int brickWidth;
+    private final int brickHeight;
+    private final int shelterPadding;
+    private final int startHeight;
+
+    private int narrowPhaseTests;
+
+    // Changes whenever bricks are removed or restored
+    private int version;
+
+    /**
+     * Creates the shelters and sizes their bricks depending on the device screen size.
+     * All bricks are initially visible.
+     *
+     * @param screenX   the device screen size in x-direction
+     * @param screenY   the device screen size in y-direction
+     */
+    public ShelterField(int screenX, int screenY) {
+        brickWidth = screenX / 90;
+        brickHeight = screenY / 40;
+        shelterPadding = screenX / 9;
+        startHeight = screenY - (screenY / 8 * 2);
+
+        reset();
+    }
+
+    /**
+     * Makes every brick of every shelter visible again.
+     */
+    public void reset() {
+        Arrays.fill(bricks, ALL_BRICKS);
+        version++;
+    }
+
+    /**
+     * Gets a counter that changes whenever the remaining bricks change. Renderers compare it to
+     * the value they last drew to find out if the shelters need to be drawn again.
+     *
+     * @return  the current brick version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the top edge of the band holding all shelters.
+     *
+     * @return  the shelters top edge
+     */
+    public int getTop() {
+        return startHeight;
+    }
+
+    /**
+     * Gets the bottom edge of the band holding all shelters.
+     *
+     * @return  the shelters bottom edge
+     */
+    public int getBottom() {
+        return startHeight + ROWS * brickHeight;
+    }
+
+    /**
+     * Gets the bitset of a single shelter's remaining bricks.
+     *
+     * @param shelterNumber the shelter number
+     * @return              the shelters bricks, bit index = row * COLUMNS + column
+     */
+    public long getBricks(int shelterNumber) {
+        return bricks[shelterNumber];
+    }
+
+    /**
+     * Gets a bricks bounding box.
+     *
+     * @param shelterNumber the bricks shelter number
+     * @param brick         the bricks bit index within its shelter
+     * @param rect          receives the bounding box
+     */
+    public void getBrickRect(int shelterNumber, int brick, Box rect) {
+        int row = brick / COLUMNS;
+        int column = brick % COLUMNS;
+
+        float left = shelterLeft(shelterNumber) + column * brickWidth;
+        float top = startHeight + row * brickHeight;
+        rect.set(left + BRICK_PADDING, top + BRICK_PADDING,
+                left + brickWidth - BRICK_PADDING, top + brickHeight - BRICK_PADDING);
+    }
+
+    /**
+     * Removes the first visible bricks a moving box runs into. A brick is only removed if it is
+     * hit before the given fraction of the move, so an object found hit earlier on the path
+     * takes precedence. Bricks of the same row are hit at the same time and removed together.
+     * Only the bricks of cells the boxes path covers are tested.
+     *
+     * @param startX    the boxes left edge at the start of the move
+     * @param startY    the boxes top edge at the start of the move
+     * @param endX      the boxes left edge at the end of the move
+     * @param endY      the boxes top edge at the end of the move
+     * @param width     the boxes size in x-direction
+     * @param height    the boxes size in y-direction
+     * @param before    the fraction of the move a brick must be hit before, 1 for the whole move
+     * @return          the number of bricks removed
+     * @see             Box
+     */
+    public int sweep(float startX, float startY, float endX, float endY,
+                     float width, float height, float before) {
+        float left = Math.min(startX, endX);
+        float top = Math.min(startY, endY);
+        float right = Math.max(startX, endX) + width;
+        float bottom = Math.max(startY, endY) + height;
+        if (bottom <= startHeight || top >= getBottom()) {
+            return 0;
+        }
+
+        int firstRow = Math.max(0, (int) Math.floor((top - startHeight) / brickHeight));
+        int lastRow = Math.min(ROWS - 1, (int) Math.floor((bottom - startHeight) / brickHeight));
+
+        // The first pass finds the earliest hit, the second removes the bricks hit then
+        float first = before;
+        int removed = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int shelterNumber = 0; shelterNumber < SHELTERS; shelterNumber++) {
+                float shelterLeft = shelterLeft(shelterNumber);
+                if (right <= shelterLeft || left >= shelterLeft + COLUMNS * brickWidth) {
+                    continue;
+                }
+
+                int firstColumn = Math.max(0,
+                        (int) Math.floor((left - shelterLeft) / brickWidth));
+                int lastColumn = Math.min(COLUMNS - 1,
+                        (int) Math.floor((right - shelterLeft) / brickWidth));
+
+                for (int row = firstRow; row <= lastRow; row++) {
+                    for (int column = firstColumn; column <= lastColumn; column++) {
+                        long mask = 1L << (row * COLUMNS + column);
+                        if ((bricks[shelterNumber] & mask) == 0) {
+                            continue;
+                        }
+
+                        float brickLeft = shelterLeft + column * brickWidth + BRICK_PADDING;
+                        float brickTop = startHeight + row * brickHeight + BRICK_PADDING;
+                        float time = Box.sweep(brickLeft, brickTop,
+                                brickLeft + brickWidth - 2 * BRICK_PADDING,
+                                brickTop + brickHeight - 2 * BRICK_PADDING,
+                                startX, startY, endX, endY, width, height);
+                        if (pass == 0) {
+                            narrowPhaseTests++;
+                            if (time >= 0 && time < first) {
+                                first = time;
+                            }
+                        } else if (time == first) {
+                            bricks[shelterNumber] &= ~mask;
+                            removed++;
+                        }
+                    }
+                }
+            }
+
+            if (first == before) {
+                return 0;
+            }
+        }
+
+        version++;
+        return removed;
+    }
+
+    /**
+     * Gets the number of exact brick intersection tests run since the last call and restarts
+     * counting.
+     *
+     * @return  the number of tests run
+     */
+    public int takeNarrowPhaseTests() {
+        int tests = narrowPhaseTests;
+        narrowPhaseTests = 0;
+        return tests;
+    }
+
+    private int shelterLeft(int shelterNumber) {
+        return shelterPadding * (2 * shelterNumber + 1);
+    }
+
+    /**
+     * Writes the remaining bricks of every shelter.
+     *
+     * @param out           the stream to write to
+     * @throws IOException  if writing fails
+     */
+    void writeState(DataOutputStream out) throws IOException {
+        for (int i = 0; i < SHELTERS; i++) {
+            out.writeLong(bricks[i]);
+        }
+    }
+
+    /**
+     * Reads a state written by writeState().
+     *
+     * @param in            the stream to read from
+     * @throws IOException  if reading fails
+     */
+    void readState(DataInputStream in) throws IOException {
+        for (int i = 0; i < SHELTERS; i++) {
+            bricks[i] = in.readLong() & ALL_BRICKS;
+        }
+        version++;
+    }
+}
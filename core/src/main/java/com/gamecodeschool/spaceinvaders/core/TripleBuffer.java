@@ -0,0 +1,71 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands objects over from one writer thread to one reader thread without locking. Of the three
+ * buffers the writer owns one to fill, the reader owns one to read, and the third is exchanged
+ * atomically between them. Neither side ever waits for the other; the reader always gets the
+ * latest published buffer, older ones the reader did not pick up in time are reused.
+ *
+ * @param <T>   the type of the buffers
+ * @version     %I%, %G%
+ */
+public class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] buffers;
+
+    // Index of the exchanged buffer, flagged FRESH when published and not yet acquired
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    private int back = 0;
+    private int front = 2;
+
+    /**
+     * Creates a triple buffer from three distinct buffers.
+     *
+     * @param first     the buffer the writer fills first
+     * @param second    the buffer exchanged first
+     * @param third     the buffer the reader holds first
+     */
+    public TripleBuffer(T first, T second, T third) {
+        buffers = new Object[] {first, second, third};
+    }
+
+    /**
+     * Gets the buffer to fill. Only called by the writer.
+     *
+     * @return  the writers buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Publishes the filled buffer and hands out another one to fill. Only called by the writer.
+     *
+     * @see AtomicInteger#getAndSet(int)
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Gets the latest published buffer. Returns the same buffer as the last call if nothing was
+     * published since. Only called by the reader.
+     *
+     * @return  the readers buffer
+     * @see     AtomicInteger#getAndSet(int)
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) buffers[front];
+    }
+}
@@ -0,0 +1,187 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+/**
+ * Decides the shape of each wave: how many formations attack, how many rows and columns of
+ * invaders each of them fills and how fast they move. The classic schedule repeats a single
+ * formation of a fixed size, and clearing it ends the game. The endless schedule starts with a
+ * small wave and makes every following wave bigger and faster, up to several formations of
+ * hundreds of invaders each. Clearing a wave then brings the next one and keeps score and lives.
+ *
+ * All formations of a game are created once with room for the largest wave, so waves only
+ * spawn invaders into grid cells and never allocate.
+ *
+ * @version %I%, %G%
+ * @see     Formation
+ * @see     GameSimulation#GameSimulation(int, int, WaveSchedule, int, long)
+ */
+public class WaveSchedule {
+
+    /**
+     * The maximum number of formations of an endless wave.
+     */
+    public static final int ENDLESS_FORMATIONS = 4;
+
+    /**
+     * The maximum number of invader rows per formation of an endless wave.
+     */
+    public static final int ENDLESS_ROWS = 6;
+
+    /**
+     * The maximum number of invader columns per formation of an endless wave.
+     */
+    public static final int ENDLESS_COLUMNS = 48;
+
+    /**
+     * The invader bullet capacity endless games are created with, enough for the shots of the
+     * largest waves.
+     */
+    public static final int ENDLESS_MAX_INVADER_BULLETS = 512;
+
+    // Speed gained per wave, relative to the classic speed
+    private static final float SPEED_STEP = 0.15f;
+
+    private final int formations;
+    private final int rows;
+    private final int columns;
+    private final boolean endless;
+
+    private WaveSchedule(int formations, int rows, int columns, boolean endless) {
+        this.formations = formations;
+        this.rows = rows;
+        this.columns = columns;
+        this.endless = endless;
+    }
+
+    /**
+     * Creates the classic schedule of a single formation of a fixed size.
+     *
+     * @param rows      the number of invader rows
+     * @param columns   the number of invader columns
+     * @return          the schedule
+     */
+    public static WaveSchedule classic(int rows, int columns) {
+        return new WaveSchedule(1, rows, columns, false);
+    }
+
+    /**
+     * Creates the endless schedule, from 18 invaders in the first wave to 1152 invaders in four
+     * formations from the tenth wave on.
+     *
+     * @return  the schedule
+     */
+    public static WaveSchedule endless() {
+        return new WaveSchedule(ENDLESS_FORMATIONS, ENDLESS_ROWS, ENDLESS_COLUMNS, true);
+    }
+
+    /**
+     * Creates one of the formations of this schedule, sized for the screen. Classic formations
+     * keep the classic invader size. Endless formations shrink their invaders until the largest
+     * wave fits into the upper half of the screen, formations stacked one free row apart.
+     *
+     * @param screenX   the screens size in x-direction
+     * @param screenY   the screens size in y-direction
+     * @return          the empty formation
+     * @see             GameSimulation#prepareLevel()
+     */
+    public Formation createFormation(int screenX, int screenY) {
+        if (!endless) {
+            return new Formation(rows, columns, screenX, screenY);
+        }
+
+        // Three quarters of the width for the columns, the upper half of the screen for the
+        // rows of all formations and the free row the game leaves below each of them, a third
+        // of each pitch stays free between the invaders
+        float pitch = Math.min(screenX * 0.75f / columns,
+                screenY * 0.5f / (formations * (rows + 1)));
+        float length = pitch * 2 / 3;
+        return new Formation(rows, columns, length, length * screenY / screenX, pitch, pitch);
+    }
+
+    /**
+     * Gets the number of formations created for a game.
+     *
+     * @return  the formation count
+     */
+    public int getFormations() {
+        return formations;
+    }
+
+    /**
+     * Gets the number of invader rows each formation has room for.
+     *
+     * @return  the row count
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of invader columns each formation has room for.
+     *
+     * @return  the column count
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets the number of invaders of the largest wave.
+     *
+     * @return  the invader capacity of all formations together
+     */
+    public int getMaxInvaders() {
+        return formations * rows * columns;
+    }
+
+    /**
+     * Gets whether clearing a wave brings the next one.
+     *
+     * @return  <code>true</code> for the endless schedule
+     *          <code>false</code> for the classic one
+     */
+    public boolean isEndless() {
+        return endless;
+    }
+
+    /**
+     * Gets the number of formations attacking in a wave. A new formation joins every third
+     * endless wave.
+     *
+     * @param wave  the waves index, 0 for the first wave
+     * @return      the number of formations in use
+     */
+    public int getFormations(int wave) {
+        return endless ? Math.min(formations, 1 + wave / 3) : formations;
+    }
+
+    /**
+     * Gets the number of invader rows each formation of a wave fills.
+     *
+     * @param wave  the waves index, 0 for the first wave
+     * @return      the number of rows in use
+     */
+    public int getRows(int wave) {
+        return endless ? Math.min(rows, 3 + wave / 2) : rows;
+    }
+
+    /**
+     * Gets the number of invader columns each formation of a wave fills.
+     *
+     * @param wave  the waves index, 0 for the first wave
+     * @return      the number of columns in use
+     */
+    public int getColumns(int wave) {
+        return endless ? Math.min(columns, 6 + 6 * wave) : columns;
+    }
+
+    /**
+     * Gets the horizontal speed the formations of a wave start with.
+     *
+     * @param wave  the waves index, 0 for the first wave
+     * @return      the speed in pixels per second
+     */
+    public float getSpeed(int wave) {
+        return endless ? Formation.INITIAL_SPEED * (1 + SPEED_STEP * wave)
+                : Formation.INITIAL_SPEED;
+    }
+}
@@ -0,0 +1,77 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A fast random number generator for the simulation thread, using the xorshift64* algorithm.
+ * Unlike java.util.Random it is not thread-safe, so drawing a number takes a few shifts and a
+ * multiplication instead of a compare-and-set loop.
+ *
+ * @version %I%, %G%
+ * @see     FireScheduler
+ */
+public class XorShiftRandom {
+
+    private long state;
+
+    /**
+     * Creates a generator. Any seed, including 0, gives a well mixed start state.
+     *
+     * @param seed  the seed
+     */
+    public XorShiftRandom(long seed) {
+        // One splitmix64 step, so similar seeds start far apart and the state is never 0
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        state = z == 0 ? 0x9E3779B97F4A7C15L : z;
+    }
+
+    /**
+     * Draws 64 random bits.
+     *
+     * @return  the next random long
+     */
+    public long nextLong() {
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        return state * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Draws a random number between 0 inclusive and 1 exclusive, uniformly distributed.
+     *
+     * @return  the next random double
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Writes the generators state.
+     *
+     * @param out           the stream to write to
+     * @throws IOException  if writing fails
+     */
+    void writeState(DataOutputStream out) throws IOException {
+        out.writeLong(state);
+    }
+
+    /**
+     * Reads a state written by writeState(), the generator then continues that sequence.
+     *
+     * @param in            the stream to read from
+     * @throws IOException  if reading fails or the state is 0
+     */
+    void readState(DataInputStream in) throws IOException {
+        long read = in.readLong();
+        if (read == 0) {
+            throw new IOException("invalid random state");
+        }
+        state = read;
+    }
+}
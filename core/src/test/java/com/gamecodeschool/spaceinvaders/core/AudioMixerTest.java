@@ -0,0 +1,65 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the coalescing, cooldowns and priorities of the audio mixer.
+ */
+public class AudioMixerTest {
+
+    private static final int SHOT = 0;
+    private static final int SHELTER = 1;
+    private static final int EXPLOSION = 2;
+
+    @Test
+    public void coalescesEventsOfOneFrame() {
+        AudioMixer mixer = new AudioMixer(3, 3);
+        int[] played = new int[3];
+
+        for (int i = 0; i < 50; i++) {
+            mixer.post(SHELTER);
+        }
+
+        assertEquals(1, mixer.mix(0, played));
+        assertEquals(SHELTER, played[0]);
+        assertEquals(49, mixer.getCoalesced());
+        assertEquals(0, mixer.mix(1, played));
+    }
+
+    @Test
+    public void cooldownSuppressesRepeats() {
+        AudioMixer mixer = new AudioMixer(3, 3);
+        mixer.setSound(SHELTER, 0, 100);
+        int[] played = new int[3];
+
+        mixer.post(SHELTER);
+        assertEquals(1, mixer.mix(1000, played));
+
+        mixer.post(SHELTER);
+        assertEquals(0, mixer.mix(1050, played));
+        assertEquals(1, mixer.getSuppressed());
+
+        mixer.post(SHELTER);
+        assertEquals(1, mixer.mix(1100, played));
+    }
+
+    @Test
+    public void limitKeepsHighestPriorities() {
+        AudioMixer mixer = new AudioMixer(3, 2);
+        mixer.setSound(EXPLOSION, 3, 0);
+        mixer.setSound(SHOT, 1, 0);
+        int[] played = new int[2];
+
+        mixer.post(SHELTER);
+        mixer.post(SHOT);
+        mixer.post(EXPLOSION);
+
+        assertEquals(2, mixer.mix(0, played));
+        assertEquals(EXPLOSION, played[0]);
+        assertEquals(SHOT, played[1]);
+        assertEquals(1, mixer.getSuppressed());
+        assertEquals(3, mixer.getPriority(EXPLOSION));
+    }
+}
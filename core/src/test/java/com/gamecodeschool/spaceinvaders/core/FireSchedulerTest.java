@@ -0,0 +1,51 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the geometric fire scheduler keeps the per invader and tick odds of shooting.
+ */
+public class FireSchedulerTest {
+
+    private static final int TRIALS = 20000000;
+
+    @Test
+    public void farInvadersShootOnceInFarOdds() {
+        FireScheduler scheduler = new FireScheduler(new XorShiftRandom(1));
+        int shots = 0;
+        for (int i = 0; i < TRIALS; i++) {
+            if (scheduler.shoots(false)) {
+                shots++;
+            }
+        }
+        double expected = (double) TRIALS / FireScheduler.FAR_ODDS;
+        assertEquals(expected, shots, expected * 0.05);
+    }
+
+    @Test
+    public void nearInvadersShootWithEitherChance() {
+        FireScheduler scheduler = new FireScheduler(new XorShiftRandom(2));
+        int shots = 0;
+        for (int i = 0; i < TRIALS; i++) {
+            if (scheduler.shoots(true)) {
+                shots++;
+            }
+        }
+        double p = 1.0 / FireScheduler.NEAR_ODDS
+                + (1 - 1.0 / FireScheduler.NEAR_ODDS) / FireScheduler.FAR_ODDS;
+        assertEquals(TRIALS * p, shots, TRIALS * p * 0.02);
+    }
+
+    @Test
+    public void sameSeedSameSequence() {
+        XorShiftRandom a = new XorShiftRandom(0);
+        XorShiftRandom b = new XorShiftRandom(0);
+        for (int i = 0; i < 100; i++) {
+            double value = a.nextDouble();
+            assertEquals(value, b.nextDouble(), 0);
+            assertTrue(value >= 0 && value < 1);
+        }
+    }
+}
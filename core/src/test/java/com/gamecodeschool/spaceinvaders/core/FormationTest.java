@@ -0,0 +1,152 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the cached formation bounds agree with testing every alive invader.
+ */
+public class FormationTest {
+
+    private static final int ROWS = 5;
+    private static final int COLUMNS = 6;
+    private static final int SCREEN_X = 1920;
+    private static final int SCREEN_Y = 1080;
+
+    private Formation formation;
+    private Invader[] invaders;
+
+    @Before
+    public void setUp() {
+        formation = new Formation(ROWS, COLUMNS, SCREEN_X, SCREEN_Y);
+        invaders = new Invader[ROWS * COLUMNS];
+        for (int i = 0; i < invaders.length; i++) {
+            invaders[i] = new Invader(formation);
+            invaders[i].spawn(i / COLUMNS, i % COLUMNS);
+        }
+        formation.reset(0, 0, Formation.INITIAL_SPEED);
+    }
+
+    @Test
+    public void boundsFollowKills() {
+        int bumps = 0;
+
+        for (int tick = 0; tick < 20000; tick++) {
+            // Kills every invader once in a scattered order, 7 and 30 being coprime
+            if (tick % 500 == 0) {
+                invaders[tick / 500 * 7 % invaders.length].setInvisible();
+            }
+
+            formation.move(GameSimulation.TICKS_PER_SECOND);
+            boolean outside = formation.isOutside(0, SCREEN_X);
+            assertEquals("tick " + tick, anyOutside(), outside);
+
+            if (outside) {
+                formation.dropDownAndReverse(1.0f);
+                bumps++;
+                float limit = SCREEN_Y - SCREEN_Y / 10;
+                assertEquals("tick " + tick, anyBelow(limit), formation.isBelow(limit));
+            }
+        }
+        assertTrue(bumps > 0);
+    }
+
+    @Test
+    public void countsFollowKills() {
+        assertEquals(ROWS * COLUMNS, formation.getAliveCount());
+
+        for (int row = 0; row < ROWS; row++) {
+            invaders[row * COLUMNS].setInvisible();
+        }
+        invaders[0].setInvisible();
+
+        assertEquals(ROWS * COLUMNS - ROWS, formation.getAliveCount());
+        assertEquals(COLUMNS - 1, formation.getAliveInRow(0));
+        assertEquals(1, formation.getLeftColumn());
+        assertEquals(COLUMNS - 1, formation.getRightColumn());
+
+        for (int column = 0; column < COLUMNS; column++) {
+            invaders[(ROWS - 1) * COLUMNS + column].setInvisible();
+        }
+        assertEquals(ROWS - 2, formation.getBottomRow());
+
+        formation.reset(0, 0, Formation.INITIAL_SPEED);
+        assertEquals(ROWS * COLUMNS - ROWS - (COLUMNS - 1), formation.getAliveCount());
+    }
+
+    @Test
+    public void emptyFormationNeitherBumpsNorInvades() {
+        for (Invader invader : invaders) {
+            invader.setInvisible();
+        }
+        formation.dropDownAndReverse(100);
+        formation.move(1);
+
+        assertFalse(formation.isOutside(0, SCREEN_X));
+        assertFalse(formation.isBelow(0));
+    }
+
+    @Test
+    public void hitOnlyFindsAliveInvaderUnderBox() {
+        Invader target = invaders[2 * COLUMNS + 3];
+        float x = target.getX() + target.getLength() / 2;
+        float y = target.getY() + target.getHeight() / 2;
+
+        assertEquals(target.getSlot(), formation.sweep(x, y, x, y, 1, 10));
+        assertEquals(1, formation.takeNarrowPhaseTests());
+
+        // The padding between two columns
+        float gap = target.getX() + target.getLength() + 1;
+        assertEquals(-1, formation.sweep(gap, y, gap, y, 1, 10));
+
+        target.setInvisible();
+        assertEquals(-1, formation.sweep(x, y, x, y, 1, 10));
+        assertEquals(-1, formation.sweep(-100, -100, -100, -100, 50, 50));
+    }
+
+    @Test
+    public void fastBulletHitsFirstInvaderOnPath() {
+        Invader bottom = invaders[(ROWS - 1) * COLUMNS + 2];
+        float x = bottom.getX() + bottom.getLength() / 2;
+
+        // Moves from below the formation to above it in a single tick
+        int slot = formation.sweep(x, SCREEN_Y, x, -SCREEN_Y, 1, 10);
+
+        assertEquals(bottom.getSlot(), slot);
+        assertTrue(formation.getSweepTime() > 0 && formation.getSweepTime() < 1);
+    }
+
+    @Test
+    public void sweepFollowsFormationMove() {
+        Invader target = invaders[0];
+        formation.move(1);
+        formation.move(1);
+        float y = target.getY() + target.getHeight() / 2;
+
+        // Rests right of the invader before its move and is only met while it moves on
+        float x = target.getInterpolatedX(0) + target.getLength();
+        assertEquals(target.getSlot(), formation.sweep(x, y, x, y, 1, 1));
+        assertEquals(-1, formation.sweep(x + 41, y, x + 41, y, 1, 1));
+    }
+
+    private boolean anyOutside() {
+        for (Invader invader : invaders) {
+            if (invader.getVisibility() && (invader.getX() < 0
+                    || invader.getX() + invader.getLength() > SCREEN_X)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean anyBelow(float limit) {
+        for (Invader invader : invaders) {
+            if (invader.getVisibility() && invader.getY() > limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
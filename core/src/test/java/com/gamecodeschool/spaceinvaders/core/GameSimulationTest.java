@@ -0,0 +1,233 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the game rules headless on the JVM.
+ */
+public class GameSimulationTest {
+
+    private static final int SCREEN_X = 1920;
+    private static final int SCREEN_Y = 1080;
+
+    @Test
+    public void startsPausedWithFullWave() {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y);
+
+        assertTrue(simulation.isPaused());
+        assertEquals(30, simulation.getNumInvaders());
+        assertEquals(0, simulation.getScore());
+        assertEquals(3, simulation.getLives());
+    }
+
+    @Test
+    public void playerBulletFiresOnlyOnceWhileActive() {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y);
+
+        assertTrue(simulation.firePlayerBullet());
+        assertFalse(simulation.firePlayerBullet());
+    }
+
+    @Test
+    public void bulletPoolDropsShotsWhenExhausted() {
+        BulletPool pool = new BulletPool(2, SCREEN_Y);
+
+        assertTrue(pool.fire(10, 10, 1));
+        assertTrue(pool.fire(20, 10, 1));
+        assertFalse(pool.fire(30, 10, 1));
+        assertEquals(2, pool.getActiveCount());
+        assertEquals(1, pool.getShotsDropped());
+
+        pool.release(0);
+        assertEquals(1, pool.getActiveCount());
+        assertTrue(pool.fire(30, 10, 1));
+        assertEquals(2, pool.getPeakActive());
+    }
+
+    @Test
+    public void runsHeadlessForTenMinutesOfTicks() {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y);
+
+        for (int tick = 0; tick < 10 * 60 * GameSimulation.TICKS_PER_SECOND; tick++) {
+            simulation.setPaused(false);
+            if (tick % 30 == 0) {
+                simulation.firePlayerBullet();
+            }
+            simulation.update();
+
+            assertEquals(0, simulation.getScore() % 10);
+            assertTrue(simulation.getLives() > 0);
+        }
+    }
+
+    @Test
+    public void restoredStateContinuesTheGame() throws IOException {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y, 5, 6, 10, 42);
+        for (int tick = 0; tick < 1500; tick++) {
+            play(simulation, tick);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        simulation.writeState(out);
+        GameSimulation restored = new GameSimulation(SCREEN_X, SCREEN_Y, 5, 6, 10, 7);
+        restored.readState(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(simulation.stateHash(), restored.stateHash());
+        assertEquals(simulation.getTick(), restored.getTick());
+        for (int tick = 1500; tick < 5000; tick++) {
+            play(simulation, tick);
+            play(restored, tick);
+            assertEquals(simulation.stateHash(), restored.stateHash());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void stateOfOtherScreenSizeIsRejected() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GameSimulation(SCREEN_X, SCREEN_Y).writeState(out);
+
+        GameSimulation rotated = new GameSimulation(SCREEN_Y, SCREEN_X);
+        rotated.readState(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void wonGameRaisesHighScore() {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y);
+        simulation.setHighScore(5);
+        final int[] reported = new int[2];
+        simulation.setListener(new GameListener() {
+            @Override
+            public void onPlayerShot() {
+            }
+
+            @Override
+            public void onInvaderDestroyed() {
+            }
+
+            @Override
+            public void onShelterDamaged() {
+            }
+
+            @Override
+            public void onPlayerHit() {
+            }
+
+            @Override
+            public void onHighScore(int highScore) {
+                reported[0] = highScore;
+            }
+
+            @Override
+            public void onGameOver(int score, boolean won) {
+                reported[1] = won ? score : -1;
+            }
+        });
+        simulation.setPaused(false);
+
+        // Leave a single invader and shoot it from the left edge, clear of the shelters
+        for (int i = 1; i < simulation.getMaxInvaders(); i++) {
+            simulation.getInvader(i).setInvisible();
+        }
+        simulation.applyCommand(InputQueue.MOVE_LEFT);
+        while (!simulation.isPaused() && simulation.getTick() < 10000) {
+            simulation.applyCommand(InputQueue.FIRE);
+            simulation.update();
+        }
+
+        assertEquals(10, reported[1]);
+        assertEquals(10, reported[0]);
+        assertEquals(10, simulation.getHighScore());
+    }
+
+    @Test
+    public void endlessWavesGrowAndKeepScore() {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y, WaveSchedule.endless(),
+                WaveSchedule.ENDLESS_MAX_INVADER_BULLETS, 42);
+        int firstWave = simulation.getNumInvaders();
+        simulation.setPaused(false);
+
+        // Clear all but one invader of the first wave, then shoot the last one from the left
+        // edge, clear of the shelters, as the formation passes over
+        int last = -1;
+        for (int i = 0; i < simulation.getMaxInvaders(); i++) {
+            if (simulation.getInvader(i).getVisibility()) {
+                if (last >= 0) {
+                    simulation.getInvader(last).setInvisible();
+                }
+                last = i;
+            }
+        }
+        simulation.applyCommand(InputQueue.MOVE_LEFT);
+        while (simulation.getWave() == 0 && simulation.getTick() < 10000) {
+            simulation.applyCommand(InputQueue.FIRE);
+            simulation.update();
+        }
+
+        assertEquals(1, simulation.getWave());
+        assertFalse(simulation.isPaused());
+        assertEquals(10, simulation.getScore());
+        assertTrue(simulation.getNumInvaders() > firstWave);
+
+        simulation.setWave(20);
+        assertEquals(WaveSchedule.endless().getMaxInvaders(), simulation.getNumInvaders());
+        assertTrue(simulation.getNumInvaders() > 1000);
+    }
+
+    @Test
+    public void largestEndlessWaveFitsIntoUpperHalf() {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y, WaveSchedule.endless(),
+                WaveSchedule.ENDLESS_MAX_INVADER_BULLETS, 42);
+        simulation.setWave(20);
+
+        for (int i = 0; i < simulation.getMaxInvaders(); i++) {
+            Invader invader = simulation.getInvader(i);
+            assertTrue(invader.getVisibility());
+            assertTrue(invader.getY() + invader.getHeight() <= SCREEN_Y / 2);
+        }
+    }
+
+    @Test
+    public void endlessStateRestoresAllFormations() throws IOException {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y, WaveSchedule.endless(),
+                WaveSchedule.ENDLESS_MAX_INVADER_BULLETS, 42);
+        simulation.setWave(7);
+        for (int tick = 0; tick < 120; tick++) {
+            play(simulation, tick);
+        }
+        assertEquals(7, simulation.getWave());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        simulation.writeState(out);
+        GameSimulation restored = new GameSimulation(SCREEN_X, SCREEN_Y, WaveSchedule.endless(),
+                WaveSchedule.ENDLESS_MAX_INVADER_BULLETS, 7);
+        restored.readState(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(7, restored.getWave());
+        assertEquals(simulation.stateHash(), restored.stateHash());
+        for (int tick = 120; tick < 1200; tick++) {
+            play(simulation, tick);
+            play(restored, tick);
+            assertEquals(simulation.stateHash(), restored.stateHash());
+        }
+    }
+
+    private static void play(GameSimulation simulation, int tick) {
+        if (simulation.isPaused()) {
+            simulation.applyCommand(InputQueue.TOGGLE_PAUSE);
+        }
+        if (tick % 40 == 0) {
+            simulation.applyCommand(InputQueue.FIRE);
+        }
+        if (tick % 300 == 0) {
+            simulation.applyCommand(tick % 600 == 0 ? InputQueue.MOVE_LEFT
+                    : InputQueue.MOVE_RIGHT);
+        }
+        simulation.update();
+    }
+}
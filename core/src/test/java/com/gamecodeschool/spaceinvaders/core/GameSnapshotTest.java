@@ -0,0 +1,49 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that snapshots copy the simulation state needed for drawing.
+ */
+public class GameSnapshotTest {
+
+    private static final int SCREEN_X = 1920;
+    private static final int SCREEN_Y = 1080;
+
+    @Test
+    public void capturesVisibleObjectsOnly() {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y);
+        simulation.getInvader(3).setInvisible();
+        simulation.firePlayerBullet();
+
+        GameSnapshot snapshot = new GameSnapshot(simulation);
+        snapshot.capture(simulation, 0, 0, true);
+
+        assertEquals(simulation.getNumInvaders() - 1, snapshot.getInvaders().getCount());
+        assertEquals(1, snapshot.getBullets().getCount());
+        assertEquals(simulation.getShelters().getVersion(), snapshot.getShelterVersion());
+        assertEquals(simulation.getShelters().getBricks(2), snapshot.getBricks(2));
+        assertEquals(3, snapshot.getLives());
+        assertTrue(snapshot.isPaused());
+        assertTrue(snapshot.getInvaderFrame());
+    }
+
+    @Test
+    public void interpolatesBetweenTicks() {
+        GameSimulation simulation = new GameSimulation(SCREEN_X, SCREEN_Y);
+        simulation.setPaused(false);
+        simulation.update();
+
+        GameSnapshot snapshot = new GameSnapshot(simulation);
+        snapshot.capture(simulation, 1000, 0, false);
+
+        GameSnapshot.Entities invaders = snapshot.getInvaders();
+        assertEquals(simulation.getFormation(0).getInterpolatedX(0, 0.5f),
+                invaders.getInterpolatedX(0, 0.5f), 0.001f);
+        assertEquals(0, snapshot.getAlpha(0), 0);
+        assertEquals(0.5f, snapshot.getAlpha(1000 + GameSimulation.NANOS_PER_TICK / 2), 0.01f);
+        assertEquals(1, snapshot.getAlpha(Long.MAX_VALUE / 2), 0);
+    }
+}
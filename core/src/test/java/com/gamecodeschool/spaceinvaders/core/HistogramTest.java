@@ -0,0 +1,48 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bucket layout and the percentile lookup of the duration histogram.
+ */
+public class HistogramTest {
+
+    @Test
+    public void bucketsCoverAllValuesWithoutGaps() {
+        assertEquals(0, Histogram.getBucketLowest(0));
+        for (int bucket = 1; bucket < Histogram.BUCKETS; bucket++) {
+            assertEquals(Histogram.getBucketHighest(bucket - 1) + 1,
+                    Histogram.getBucketLowest(bucket));
+        }
+        assertEquals(Long.MAX_VALUE, Histogram.getBucketHighest(Histogram.BUCKETS - 1));
+
+        long[] values = {0, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = Histogram.bucketOf(value);
+            assertTrue(Histogram.getBucketLowest(bucket) <= value);
+            assertTrue(Histogram.getBucketHighest(bucket) >= value);
+        }
+    }
+
+    @Test
+    public void percentilesStayWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10000000, histogram.getMax());
+        assertEquals(5000000, histogram.getValueAtPercentile(50),
+                5000000 / Histogram.SUB_BUCKETS);
+        assertEquals(9900000, histogram.getValueAtPercentile(99),
+                9900000 / Histogram.SUB_BUCKETS);
+        assertEquals(10000000, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
@@ -0,0 +1,76 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the lock-free command queue between the UI thread and the simulation thread.
+ */
+public class InputQueueTest {
+
+    @Test
+    public void keepsOrderAndDropsWhenFull() {
+        InputQueue queue = new InputQueue(4);
+
+        assertTrue(queue.offer(InputQueue.MOVE_LEFT, 10));
+        assertTrue(queue.offer(InputQueue.FIRE, 20));
+        assertTrue(queue.offer(InputQueue.STOP, 30));
+        assertTrue(queue.offer(InputQueue.TOGGLE_PAUSE, 40));
+        assertFalse(queue.offer(InputQueue.FIRE, 50));
+        assertEquals(1, queue.getDropped());
+
+        assertEquals(InputQueue.MOVE_LEFT, queue.poll());
+        assertEquals(10, queue.getLastInputTime());
+        assertEquals(InputQueue.FIRE, queue.poll());
+        assertEquals(InputQueue.STOP, queue.poll());
+        assertEquals(InputQueue.TOGGLE_PAUSE, queue.poll());
+        assertEquals(40, queue.getLastInputTime());
+        assertEquals(InputQueue.NONE, queue.poll());
+    }
+
+    @Test
+    public void drainAppliesCommandsToSimulation() {
+        GameSimulation simulation = new GameSimulation(1920, 1080);
+        InputQueue queue = new InputQueue(16);
+
+        queue.offer(InputQueue.TOGGLE_PAUSE, 1);
+        queue.offer(InputQueue.FIRE, 2);
+
+        assertEquals(2, queue.drainTo(simulation));
+        assertFalse(simulation.isPaused());
+        assertTrue(simulation.getPlayerBulletStore().alive[0]);
+        assertEquals(0, queue.drainTo(simulation));
+    }
+
+    @Test
+    public void concurrentConsumerSeesEveryCommandInOrder() throws InterruptedException {
+        final InputQueue queue = new InputQueue(8);
+        final int offers = 200000;
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= offers; i++) {
+                    while (!queue.offer(InputQueue.MOVE_LEFT + i % 5, i)) {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        producer.start();
+
+        long expected = 1;
+        while (expected <= offers) {
+            int command = queue.poll();
+            if (command != InputQueue.NONE) {
+                assertEquals(expected, queue.getLastInputTime());
+                assertEquals(InputQueue.MOVE_LEFT + expected % 5, command);
+                expected++;
+            } else {
+                Thread.yield();
+            }
+        }
+        producer.join();
+    }
+}
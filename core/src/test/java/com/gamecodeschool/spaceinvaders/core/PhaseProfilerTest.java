@@ -0,0 +1,40 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the profiler only times phases while enabled.
+ */
+public class PhaseProfilerTest {
+
+    @Test
+    public void timesPhasesOnlyWhileEnabled() throws IOException {
+        GameSimulation simulation = new GameSimulation(1920, 1080);
+        simulation.setPaused(false);
+        PhaseProfiler profiler = simulation.getProfiler();
+
+        simulation.update();
+        assertEquals(0, profiler.getHistogram(PhaseProfiler.INVADERS).getCount());
+
+        profiler.setEnabled(true);
+        simulation.update();
+        simulation.update();
+        assertEquals(2, profiler.getHistogram(PhaseProfiler.INVADERS).getCount());
+        assertEquals(2, profiler.getHistogram(PhaseProfiler.PLAYER_HITS).getCount());
+        assertEquals(0, profiler.getHistogram(PhaseProfiler.DRAW).getCount());
+
+        StringWriter out = new StringWriter();
+        profiler.writeTo(out);
+        assertTrue(out.toString().startsWith("# invaders count=2 p50="));
+        assertFalse(out.toString().contains("# draw"));
+
+        profiler.setEnabled(false);
+        simulation.update();
+        assertEquals(2, profiler.getHistogram(PhaseProfiler.INVADERS).getCount());
+    }
+}
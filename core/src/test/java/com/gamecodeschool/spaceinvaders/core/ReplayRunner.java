@@ -0,0 +1,69 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Runs a recorded game headless at full speed and checks the state hash after every tick.
+ * Run with <code>./gradlew :core:replay -PreplayFile=replay.bin</code>.
+ */
+public class ReplayRunner {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: ReplayRunner <replay file>");
+            System.exit(2);
+        }
+
+        Replay replay;
+        InputStream in = new FileInputStream(args[0]);
+        try {
+            replay = Replay.readFrom(in);
+        } finally {
+            in.close();
+        }
+
+        long start = System.nanoTime();
+        int mismatch = run(replay);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d ticks, %d commands, %.1f ns/tick%n",
+                replay.getTickCount(), replay.getCommandCount(),
+                (double) elapsed / Math.max(1, replay.getTickCount()));
+        if (mismatch >= 0) {
+            System.out.println("state diverged at tick " + mismatch);
+            System.exit(1);
+        }
+        System.out.println("all state hashes match");
+    }
+
+    /**
+     * Runs a replay on a new simulation.
+     *
+     * @param replay    the replay to run
+     * @return          the first tick whose state hash differs from the recorded one, -1 if all
+     *                  ticks match
+     */
+    public static int run(Replay replay) {
+        GameSimulation simulation = replay.createSimulation();
+        int command = 0;
+
+        for (int tick = 0; tick < replay.getTickCount(); tick++) {
+            while (command < replay.getCommandCount() && replay.getCommandTick(command) == tick) {
+                simulation.applyCommand(replay.getCommand(command));
+                command++;
+            }
+
+            // A recorded tick never ran paused
+            if (simulation.isPaused()) {
+                return tick;
+            }
+            simulation.update();
+            if (simulation.stateHash() != replay.getHash(tick)) {
+                return tick;
+            }
+        }
+        return -1;
+    }
+}
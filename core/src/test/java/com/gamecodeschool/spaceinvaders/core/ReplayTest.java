@@ -0,0 +1,91 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a recorded game runs again exactly, also after going through the binary format.
+ */
+public class ReplayTest {
+
+    private static final int TICKS = 5000;
+
+    @Test
+    public void recordedGameReplaysTickByTick() throws IOException {
+        GameSimulation simulation = new GameSimulation(1920, 1080, 5, 6, 10, 42);
+        Replay recorded = new Replay(simulation);
+        simulation.setReplay(recorded);
+
+        simulation.applyCommand(InputQueue.TOGGLE_PAUSE);
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (simulation.isPaused()) {
+                simulation.applyCommand(InputQueue.TOGGLE_PAUSE);
+            }
+            if (tick % 40 == 0) {
+                simulation.applyCommand(InputQueue.FIRE);
+            }
+            if (tick % 300 == 0) {
+                simulation.applyCommand(tick % 600 == 0 ? InputQueue.MOVE_LEFT
+                        : InputQueue.MOVE_RIGHT);
+            }
+            simulation.update();
+        }
+        assertEquals(TICKS, recorded.getTickCount());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorded.writeTo(out);
+        Replay replay = Replay.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(recorded.getCommandCount(), replay.getCommandCount());
+        assertEquals(recorded.getCommandTick(7), replay.getCommandTick(7));
+        assertEquals(-1, ReplayRunner.run(replay));
+    }
+
+    @Test
+    public void recordingStopsWhenFull() throws IOException {
+        GameSimulation simulation = new GameSimulation(1920, 1080, 5, 6, 10, 42);
+        Replay recorded = new Replay(simulation);
+        simulation.setReplay(recorded);
+        for (int tick = 0; tick < Replay.MAX_TICKS + 100; tick++) {
+            if (simulation.isPaused()) {
+                simulation.applyCommand(InputQueue.TOGGLE_PAUSE);
+            }
+            simulation.update();
+        }
+
+        assertTrue(recorded.isFull());
+        assertEquals(Replay.MAX_TICKS, recorded.getTickCount());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorded.writeTo(out);
+        Replay replay = Replay.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(-1, ReplayRunner.run(replay));
+    }
+
+    @Test
+    public void differentSeedDiverges() {
+        GameSimulation simulation = new GameSimulation(1920, 1080, 5, 6, 10, 1);
+        Replay recorded = new Replay(simulation);
+        simulation.setReplay(recorded);
+        simulation.applyCommand(InputQueue.TOGGLE_PAUSE);
+        for (int tick = 0; tick < TICKS && !simulation.isPaused(); tick++) {
+            simulation.update();
+        }
+
+        GameSimulation other = new GameSimulation(1920, 1080, 5, 6, 10, 2);
+        other.setPaused(false);
+        int diverged = -1;
+        for (int tick = 0; tick < recorded.getTickCount() && diverged < 0; tick++) {
+            other.update();
+            if (other.stateHash() != recorded.getHash(tick)) {
+                diverged = tick;
+            }
+        }
+        assertTrue(diverged >= 0);
+    }
+}
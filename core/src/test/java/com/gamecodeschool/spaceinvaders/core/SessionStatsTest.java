@@ -0,0 +1,78 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the counting, merging and binary format of the session stats.
+ */
+public class SessionStatsTest {
+
+    @Test
+    public void recentScoresKeepTheLastGames() {
+        SessionStats stats = new SessionStats();
+        for (int game = 0; game < SessionStats.RECENT_SCORES + 4; game++) {
+            stats.recordGame(game * 10, game % 2 == 0);
+        }
+
+        assertEquals(SessionStats.RECENT_SCORES + 4, stats.getGames());
+        assertEquals(SessionStats.RECENT_SCORES / 2 + 2, stats.getWins());
+        assertEquals((SessionStats.RECENT_SCORES + 3) * 10, stats.getHighScore());
+        assertEquals(SessionStats.RECENT_SCORES, stats.getRecentScoreCount());
+        assertEquals(40, stats.getRecentScore(0));
+        assertEquals((SessionStats.RECENT_SCORES + 3) * 10,
+                stats.getRecentScore(SessionStats.RECENT_SCORES - 1));
+    }
+
+    @Test
+    public void addFollowsEarlierStats() {
+        SessionStats stored = new SessionStats();
+        stored.recordGame(300, true);
+        stored.recordShot();
+        stored.recordHit();
+
+        SessionStats session = new SessionStats();
+        session.recordGame(120, false);
+        session.recordShot();
+        session.recordTicks((int) GameSimulation.TICKS_PER_SECOND);
+
+        SessionStats total = new SessionStats();
+        total.copyFrom(stored);
+        total.add(session);
+
+        assertEquals(2, total.getGames());
+        assertEquals(300, total.getHighScore());
+        assertEquals(0.5f, total.getAccuracy(), 0);
+        assertEquals(1000, total.getPlayMillis());
+        assertEquals(300, total.getRecentScore(0));
+        assertEquals(120, total.getRecentScore(1));
+        assertEquals(1, stored.getGames());
+    }
+
+    @Test
+    public void binaryFormatRoundTrips() throws IOException {
+        SessionStats stats = new SessionStats();
+        stats.recordGame(70, false);
+        stats.recordGame(300, true);
+        stats.recordShot();
+        stats.recordHit();
+        stats.recordTicks(5000);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stats.writeTo(out);
+        SessionStats read = SessionStats.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(300, read.getHighScore());
+        assertEquals(2, read.getGames());
+        assertEquals(1, read.getWins());
+        assertEquals(1, read.getHits());
+        assertEquals(stats.getPlayMillis(), read.getPlayMillis());
+        assertEquals(2, read.getRecentScoreCount());
+        assertEquals(70, read.getRecentScore(0));
+    }
+}
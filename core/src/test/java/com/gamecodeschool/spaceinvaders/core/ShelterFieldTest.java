@@ -0,0 +1,91 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bitset based shelter bricks.
+ */
+public class ShelterFieldTest {
+
+    private static final int SCREEN_X = 1800;
+    private static final int SCREEN_Y = 800;
+
+    @Test
+    public void restingBoxRemovesOnlyCoveredBricks() {
+        ShelterField shelters = new ShelterField(SCREEN_X, SCREEN_Y);
+        Box brick = new Box();
+        shelters.getBrickRect(1, 0, brick);
+
+        int removed = rest(shelters, brick.left + 1, brick.top + 1, brick.left + 2, brick.top + 2);
+
+        assertEquals(1, removed);
+        assertEquals(ShelterField.COLUMNS * ShelterField.ROWS - 1,
+                Long.bitCount(shelters.getBricks(1)));
+        assertEquals(0, shelters.getBricks(1) & 1L);
+        assertEquals(ShelterField.COLUMNS * ShelterField.ROWS,
+                Long.bitCount(shelters.getBricks(0)));
+    }
+
+    @Test
+    public void boxOutsideSheltersRemovesNothing() {
+        ShelterField shelters = new ShelterField(SCREEN_X, SCREEN_Y);
+
+        assertEquals(0, rest(shelters, 0, 0, 1, SCREEN_Y / 20));
+        assertEquals(0, rest(shelters, 1, 0, 2, SCREEN_Y));
+    }
+
+    @Test
+    public void sweepStopsAtFirstBrickOnPath() {
+        ShelterField shelters = new ShelterField(SCREEN_X, SCREEN_Y);
+        Box brick = new Box();
+        shelters.getBrickRect(1, 0, brick);
+        float x = brick.left + 1;
+
+        // Crosses the whole shelter in one move, from above to below
+        assertEquals(1, shelters.sweep(x, 0, x, SCREEN_Y, 1, 10, 1));
+        assertEquals(0, shelters.getBricks(1) & 1L);
+        assertEquals(ShelterField.COLUMNS * ShelterField.ROWS - 1,
+                Long.bitCount(shelters.getBricks(1)));
+
+        // Something else hit before the shelter keeps the bricks
+        assertEquals(0, shelters.sweep(x, 0, x, SCREEN_Y, 1, 10, 0.01f));
+        assertEquals(ShelterField.COLUMNS * ShelterField.ROWS - 1,
+                Long.bitCount(shelters.getBricks(1)));
+    }
+
+    @Test
+    public void resetRestoresAllBricks() {
+        ShelterField shelters = new ShelterField(SCREEN_X, SCREEN_Y);
+        rest(shelters, 0, 0, SCREEN_X, SCREEN_Y);
+        assertEquals(0, shelters.getBricks(2));
+
+        shelters.reset();
+
+        assertEquals(ShelterField.COLUMNS * ShelterField.ROWS,
+                Long.bitCount(shelters.getBricks(2)));
+    }
+
+    @Test
+    public void versionChangesOnlyWithBricks() {
+        ShelterField shelters = new ShelterField(SCREEN_X, SCREEN_Y);
+        int version = shelters.getVersion();
+
+        rest(shelters, 0, 0, 1, SCREEN_Y / 20);
+        assertEquals(version, shelters.getVersion());
+
+        rest(shelters, 0, shelters.getTop(), SCREEN_X, shelters.getBottom());
+        assertNotEquals(version, shelters.getVersion());
+
+        version = shelters.getVersion();
+        shelters.reset();
+        assertNotEquals(version, shelters.getVersion());
+    }
+
+    // Sweeps a box that does not move, removing every brick it covers
+    private static int rest(ShelterField shelters, float left, float top,
+                            float right, float bottom) {
+        return shelters.sweep(left, top, left, top, right - left, bottom - top, 1);
+    }
+}
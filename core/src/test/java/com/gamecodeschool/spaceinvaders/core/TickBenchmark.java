@@ -0,0 +1,37 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+/**
+ * Measures the average time of a single GameSimulation tick on the JVM.
+ * Run with <code>./gradlew :core:tickBenchmark</code>.
+ */
+public class TickBenchmark {
+
+    private static final int WARMUP_TICKS = 200000;
+    private static final int MEASURED_TICKS = 1000000;
+
+    public static void main(String[] args) {
+        GameSimulation simulation = new GameSimulation(1920, 1080);
+
+        run(simulation, WARMUP_TICKS);
+        simulation.takeNarrowPhaseTests();
+
+        long start = System.nanoTime();
+        run(simulation, MEASURED_TICKS);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d ticks, %.1f ns/tick, %.2f narrow-phase tests/tick%n",
+                MEASURED_TICKS,
+                (double) elapsed / MEASURED_TICKS,
+                (double) simulation.takeNarrowPhaseTests() / MEASURED_TICKS);
+    }
+
+    private static void run(GameSimulation simulation, int ticks) {
+        for (int tick = 0; tick < ticks; tick++) {
+            simulation.setPaused(false);
+            if (tick % 30 == 0) {
+                simulation.firePlayerBullet();
+            }
+            simulation.update();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.gamecodeschool.spaceinvaders.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the lock-free handover between one writer and one reader.
+ */
+public class TripleBufferTest {
+
+    @Test
+    public void readerGetsLatestPublishedBuffer() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[1], new long[1], new long[1]);
+        long[] initial = buffer.acquire();
+
+        assertSame(initial, buffer.acquire());
+
+        buffer.getBack()[0] = 1;
+        buffer.publish();
+        buffer.getBack()[0] = 2;
+        buffer.publish();
+
+        long[] latest = buffer.acquire();
+        assertEquals(2, latest[0]);
+        assertSame(latest, buffer.acquire());
+        assertNotSame(latest, buffer.getBack());
+    }
+
+    @Test
+    public void concurrentReaderNeverSeesTornOrOlderBuffers() throws InterruptedException {
+        final TripleBuffer<long[]> buffer =
+                new TripleBuffer<>(new long[2], new long[2], new long[2]);
+        final int publishes = 200000;
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (long i = 1; i <= publishes; i++) {
+                    long[] back = buffer.getBack();
+                    back[0] = i;
+                    back[1] = -i;
+                    buffer.publish();
+                }
+            }
+        });
+        writer.start();
+
+        long previous = 0;
+        while (previous < publishes) {
+            long[] front = buffer.acquire();
+            assertEquals(front[0], -front[1]);
+            assertTrue(front[0] >= previous);
+            previous = front[0];
+        }
+        writer.join();
+    }
+}